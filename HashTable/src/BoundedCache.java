@@ -0,0 +1,336 @@
+/**
+ * This class is an implementation of a cache with a bounded size on top of HashTable. When the
+ * total weight of the entries exceeds the maximum, entries are evicted in the order chosen by an
+ * EvictionPolicy. By default every entry weighs 1, so the maximum weight is the maximum number
+ * of entries.
+ *
+ * @param <K> the generic type of the key
+ * @param <V> the generic type of the value
+ */
+public class BoundedCache<K, V> {
+    /**
+     * An interface for computing the weight of an entry.
+     *
+     * @param <K> the generic type of the key
+     * @param <V> the generic type of the value
+     */
+    public interface Weigher<K, V> {
+        /**
+         * Computes the weight of an entry.
+         *
+         * @param key   the key of the entry
+         * @param value the value of the entry
+         * @return the weight of the entry, which must not be negative
+         */
+        long weigh(K key, V value);
+    }
+
+    /**
+     * An inner class for representation of a cache entry. Besides the pair, it holds the links
+     * and flags that the eviction policies use, so a policy never needs a second lookup.
+     *
+     * @param <K> the generic type of the key
+     * @param <V> the generic type of the value
+     */
+    public static class Entry<K, V> {
+        K key;
+        V value;
+        long weight;
+        Entry<K, V> prev;
+        Entry<K, V> next;
+        // The CLOCK reference bit.
+        boolean referenced;
+        // The queue of a segmented policy that the entry is in.
+        int queue;
+
+        /**
+         * Constructor for the entry class.
+         *
+         * @param key    the key of the entry
+         * @param value  the value of the entry
+         * @param weight the weight of the entry
+         */
+        Entry(K key, V value, long weight) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+        }
+
+        /**
+         * Gets the key of the entry.
+         *
+         * @return the key of the entry
+         */
+        public K getKey() {
+            return key;
+        }
+
+        /**
+         * Gets the weight of the entry.
+         *
+         * @return the weight of the entry
+         */
+        public long getWeight() {
+            return weight;
+        }
+    }
+
+    /**
+     * An inner class for representation of a doubly linked list of entries with a dummy head.
+     * The policies use it to keep their queues.
+     *
+     * @param <K> the generic type of the key
+     * @param <V> the generic type of the value
+     */
+    static class EntryList<K, V> {
+        private final Entry<K, V> dummyHead = new Entry<>(null, null, 0);
+        private long weight;
+
+        /**
+         * Constructor for the list class.
+         */
+        EntryList() {
+            dummyHead.prev = dummyHead;
+            dummyHead.next = dummyHead;
+        }
+
+        /**
+         * Checks if the list is empty.
+         *
+         * @return true if the list is empty, false otherwise
+         */
+        boolean isEmpty() {
+            return dummyHead.next == dummyHead;
+        }
+
+        /**
+         * Gets the total weight of the entries in the list.
+         *
+         * @return the total weight
+         */
+        long getWeight() {
+            return weight;
+        }
+
+        /**
+         * Gets the first entry, which is the least recently added or moved one.
+         *
+         * @return the first entry, or null if the list is empty
+         */
+        Entry<K, V> first() {
+            return isEmpty() ? null : dummyHead.next;
+        }
+
+        /**
+         * Gets the last entry, which is the most recently added or moved one.
+         *
+         * @return the last entry, or null if the list is empty
+         */
+        Entry<K, V> last() {
+            return isEmpty() ? null : dummyHead.prev;
+        }
+
+        /**
+         * Adds an entry to the end of the list.
+         *
+         * @param e the entry
+         */
+        void addLast(Entry<K, V> e) {
+            e.prev = dummyHead.prev;
+            e.next = dummyHead;
+            dummyHead.prev.next = e;
+            dummyHead.prev = e;
+            weight += e.weight;
+        }
+
+        /**
+         * Removes an entry from the list.
+         *
+         * @param e the entry
+         */
+        void remove(Entry<K, V> e) {
+            e.prev.next = e.next;
+            e.next.prev = e.prev;
+            e.prev = null;
+            e.next = null;
+            weight -= e.weight;
+        }
+
+        /**
+         * Moves an entry of the list to its end.
+         *
+         * @param e the entry
+         */
+        void moveToLast(Entry<K, V> e) {
+            remove(e);
+            addLast(e);
+        }
+    }
+
+    private final HashTable<K, Entry<K, V>> table;
+    private final EvictionPolicy<K, V> policy;
+    private final Weigher<K, V> weigher;
+    private final long maximumWeight;
+    private long weight;
+
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    /**
+     * Constructor for the class.
+     *
+     * @param maximumWeight the maximum total weight of the entries
+     * @param policy        the eviction policy, which must not be shared with another cache
+     * @param weigher       computes the weight of every entry
+     */
+    public BoundedCache(long maximumWeight, EvictionPolicy<K, V> policy, Weigher<K, V> weigher) {
+        if (maximumWeight <= 0) {
+            throw new IllegalArgumentException("The maximum weight must be positive.");
+        }
+        this.table = new HashTable<>();
+        this.policy = policy;
+        this.weigher = weigher;
+        this.maximumWeight = maximumWeight;
+        policy.setMaximum(maximumWeight);
+    }
+
+    /**
+     * Constructor for the class. Every entry weighs 1.
+     *
+     * @param maximumSize the maximum number of entries
+     * @param policy      the eviction policy, which must not be shared with another cache
+     */
+    public BoundedCache(long maximumSize, EvictionPolicy<K, V> policy) {
+        this(maximumSize, policy, (key, value) -> 1);
+    }
+
+    /**
+     * Gets the number of entries in the cache.
+     *
+     * @return the number of entries
+     */
+    public int getSize() {
+        return table.getSize();
+    }
+
+    /**
+     * Gets the total weight of the entries in the cache.
+     *
+     * @return the total weight
+     */
+    public long getWeight() {
+        return weight;
+    }
+
+    /**
+     * Adds a key, value pair to the cache, and evicts entries if the cache becomes too heavy.
+     *
+     * @param key   the key of the pair
+     * @param value the value of the pair
+     */
+    public void add(K key, V value) {
+        long w = weigher.weigh(key, value);
+        if (w < 0) {
+            throw new IllegalArgumentException("The weight cannot be negative.");
+        }
+
+        Entry<K, V> e = table.get(key);
+        if (e == null) {
+            e = new Entry<>(key, value, w);
+            table.add(key, e);
+            policy.onAdd(e);
+            weight += w;
+        } else if (e.weight == w) {
+            e.value = value;
+            policy.onAccess(e);
+        } else {
+            // The policies keep the weights of their queues, so an entry whose weight changes is
+            // taken out and added again.
+            policy.onRemove(e);
+            weight -= e.weight;
+            e.value = value;
+            e.weight = w;
+            policy.onAdd(e);
+            weight += w;
+        }
+
+        while (weight > maximumWeight) {
+            Entry<K, V> victim = policy.evict();
+            table.remove(victim.key);
+            weight -= victim.weight;
+            evictionCount++;
+        }
+    }
+
+    /**
+     * Gets the value of the entry with the specified key.
+     *
+     * @param key the specified key
+     * @return the value of the entry, or null if the key is not cached
+     */
+    public V get(K key) {
+        Entry<K, V> e = table.get(key);
+        if (e == null) {
+            missCount++;
+            return null;
+        }
+        hitCount++;
+        policy.onAccess(e);
+        return e.value;
+    }
+
+    /**
+     * Checks if the cache contains an entry with the specified key. It doesn't count as an
+     * access.
+     *
+     * @param key the specified key
+     * @return true if the key is cached, false otherwise
+     */
+    public boolean contains(K key) {
+        return table.contains(key);
+    }
+
+    /**
+     * Removes the entry with the specified key.
+     *
+     * @param key the key of the entry to be removed
+     * @return the value of the removed entry, or null if the key is not cached
+     */
+    public V remove(K key) {
+        Entry<K, V> e = table.remove(key);
+        if (e == null) {
+            return null;
+        }
+        policy.onRemove(e);
+        weight -= e.weight;
+        return e.value;
+    }
+
+    /**
+     * Gets the number of lookups that found an entry.
+     *
+     * @return the number of hits
+     */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Gets the number of lookups that found no entry.
+     *
+     * @return the number of misses
+     */
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Gets the number of entries evicted because the cache was full.
+     *
+     * @return the number of evictions
+     */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+}
@@ -0,0 +1,96 @@
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * This class checks the weight accounting of BoundedCache under every eviction policy. The
+ * total weight must always equal the sum of the weights of the cached entries, also when
+ * existing keys are overwritten with the same or a different weight.
+ * <p>
+ * Usage: BoundedCacheCheck. It prints "ok", or throws an IllegalStateException on the first
+ * failure.
+ */
+public class BoundedCacheCheck {
+    private BoundedCacheCheck(){}
+
+    /**
+     * Throws if a condition does not hold.
+     *
+     * @param condition the condition
+     * @param message   the message of the failure
+     */
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException(message);
+        }
+    }
+
+    /**
+     * Overwrites one key repeatedly, and then checks that the other keys still fit.
+     *
+     * @param name   the name of the policy
+     * @param policy creates the policy
+     */
+    private static void repeatedOverwrites(String name,
+                                           Supplier<EvictionPolicy<String, Integer>> policy) {
+        BoundedCache<String, Integer> cache = new BoundedCache<>(3, policy.get());
+        for (int i = 0; i < 4; i++) {
+            cache.add("a", i);
+        }
+        check(cache.getSize() == 1, name + ": size after overwrites is " + cache.getSize());
+        check(cache.getWeight() == 1, name + ": weight after overwrites is " + cache.getWeight());
+        check(cache.get("a") == 3, name + ": overwritten value is lost");
+
+        cache.add("b", 0);
+        cache.add("c", 0);
+        check(cache.getSize() == 3, name + ": size after new keys is " + cache.getSize());
+        check(cache.getWeight() == 3, name + ": weight after new keys is " + cache.getWeight());
+        check(cache.getEvictionCount() == 0, name + ": an entry was evicted");
+    }
+
+    /**
+     * Runs random adds, overwrites with changing weights and removes, and checks the total
+     * weight against the weights of the entries that are still cached.
+     *
+     * @param name   the name of the policy
+     * @param policy creates the policy
+     */
+    private static void randomWeights(String name,
+                                      Supplier<EvictionPolicy<String, Integer>> policy) {
+        // The weight of an entry is its value.
+        BoundedCache<String, Integer> cache = new BoundedCache<>(100, policy.get(), (k, v) -> v);
+        Random random = new Random(name.hashCode());
+        for (int i = 0; i < 100_000; i++) {
+            String key = "k" + random.nextInt(40);
+            if (random.nextInt(10) == 0) {
+                cache.remove(key);
+            } else {
+                cache.add(key, random.nextInt(10));
+            }
+
+            long weight = 0;
+            for (int k = 0; k < 40; k++) {
+                if (cache.contains("k" + k)) {
+                    weight += cache.get("k" + k);
+                }
+            }
+            check(cache.getWeight() == weight,
+                    name + ": weight is " + cache.getWeight() + " instead of " + weight);
+            check(weight <= 100, name + ": weight " + weight + " exceeds the maximum");
+        }
+    }
+
+    /**
+     * Runs the checks.
+     *
+     * @param args not used
+     */
+    public static void main(String[] args) {
+        repeatedOverwrites("LRU", LruPolicy::new);
+        repeatedOverwrites("Clock", ClockPolicy::new);
+        repeatedOverwrites("W-TinyLFU", WTinyLfuPolicy::new);
+        randomWeights("LRU", LruPolicy::new);
+        randomWeights("Clock", ClockPolicy::new);
+        randomWeights("W-TinyLFU", WTinyLfuPolicy::new);
+        System.out.println("ok");
+    }
+}
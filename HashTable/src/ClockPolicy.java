@@ -0,0 +1,73 @@
+/**
+ * This class implements the CLOCK (second chance) eviction policy. An access only sets the
+ * reference bit of an entry and never moves it. When an entry has to be evicted, the hand
+ * walks around the list. An entry whose bit is set gets its bit cleared and is passed over,
+ * and the first entry whose bit is clear is evicted.
+ * Time complexity = O(1) amortized, since every bit is cleared at most once per access.
+ *
+ * @param <K> the generic type of the key
+ * @param <V> the generic type of the value
+ */
+public class ClockPolicy<K, V> implements EvictionPolicy<K, V> {
+    // The first entry of the list is the one under the hand.
+    private final BoundedCache.EntryList<K, V> list = new BoundedCache.EntryList<>();
+
+    /**
+     * CLOCK doesn't depend on the maximum weight.
+     *
+     * @param maximumWeight the maximum total weight
+     */
+    @Override
+    public void setMaximum(long maximumWeight) {
+    }
+
+    /**
+     * Adds the entry right behind the hand with its reference bit clear.
+     *
+     * @param entry the added entry
+     */
+    @Override
+    public void onAdd(BoundedCache.Entry<K, V> entry) {
+        entry.referenced = false;
+        list.addLast(entry);
+    }
+
+    /**
+     * Sets the reference bit of the entry.
+     *
+     * @param entry the accessed entry
+     */
+    @Override
+    public void onAccess(BoundedCache.Entry<K, V> entry) {
+        entry.referenced = true;
+    }
+
+    /**
+     * Removes the entry from the list.
+     *
+     * @param entry the removed entry
+     */
+    @Override
+    public void onRemove(BoundedCache.Entry<K, V> entry) {
+        list.remove(entry);
+    }
+
+    /**
+     * Advances the hand until it points at an entry whose reference bit is clear, and removes
+     * that entry.
+     *
+     * @return the entry to be evicted
+     */
+    @Override
+    public BoundedCache.Entry<K, V> evict() {
+        BoundedCache.Entry<K, V> e = list.first();
+        while (e.referenced) {
+            // Advancing the hand is the same as moving the entry behind all the others.
+            e.referenced = false;
+            list.moveToLast(e);
+            e = list.first();
+        }
+        list.remove(e);
+        return e;
+    }
+}
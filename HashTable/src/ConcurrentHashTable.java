@@ -0,0 +1,300 @@
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * This class is a thread-safe implementation of a hash table structure. It has the same API as
+ * HashTable, but the buckets are guarded by a fixed number of locks (lock striping), so threads
+ * that write to different stripes don't block each other. Reads take no lock at all.
+ * <p>
+ * The number of buckets is always a multiple of the number of locks, and bucket i is guarded by
+ * lock i % stripes. Since (h % M) % stripes == h % stripes in that case, all the keys of a bucket
+ * belong to the same lock no matter how often the table is resized.
+ * <p>
+ * The table is resized when the total number of entries leaves [LOWER_TOL * M, UPPER_TOL * M).
+ * A grow halves the load and a shrink doubles it, so after a resize the load is at least
+ * UPPER_TOL / 2 and at most 2 * LOWER_TOL, well inside the range, and the next resize needs
+ * O(M) more operations. This keeps the cost of resizing amortized O(1) per operation.
+ *
+ * @param <K> the generic type of the key
+ * @param <V> the generic type of the value
+ */
+public class ConcurrentHashTable<K, V> {
+    private static final int UPPER_TOL = 10;
+    private static final int LOWER_TOL = 2;
+    private static final int initCapacity = 7;
+    private static final int defaultStripes = 64;
+
+    /**
+     * An inner node class for representation of an entry in a bucket. The key and the link to
+     * the next node never change after a node is published, so a reader that walks a chain
+     * always sees a consistent list. Removing a node copies the nodes in front of it instead.
+     */
+    private static class Node<K, V> {
+        public final K key;
+        public volatile V value;
+        public final Node<K, V> next;
+
+        /**
+         * Constructor for the node class.
+         *
+         * @param key   the key of the node
+         * @param value the value of the node
+         * @param next  the next node
+         */
+        public Node(K key, V value, Node<K, V> next) {
+            this.key = key;
+            this.value = value;
+            this.next = next;
+        }
+    }
+
+    // The bucket array is replaced as a whole during a resize. Readers that still hold the old
+    // array see the table as it was right before the resize.
+    private volatile AtomicReferenceArray<Node<K, V>> hashTable;
+    private final ReentrantLock[] locks;
+    // The number of entries. It is only changed while the lock of the changed key is held, so
+    // it is exact while all the locks are held.
+    private final LongAdder size = new LongAdder();
+
+    /**
+     * Constructor for the class.
+     *
+     * @param M       the initial number of buckets, rounded up to a multiple of stripes
+     * @param stripes the number of locks that guard the buckets
+     */
+    public ConcurrentHashTable(int M, int stripes) {
+        if (M <= 0 || stripes <= 0) {
+            throw new IllegalArgumentException("M and stripes must be positive.");
+        }
+        M = (M + stripes - 1) / stripes * stripes;
+        hashTable = new AtomicReferenceArray<>(M);
+        locks = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * No-argument constructor for the class.
+     */
+    public ConcurrentHashTable() {
+        this(initCapacity, defaultStripes);
+    }
+
+    /**
+     * Creates a hash code for a table with the specified number of buckets.
+     *
+     * @param key the key
+     * @param m   the number of buckets
+     * @return a hash code
+     */
+    private static int hash(Object key, int m) {
+        return (key.hashCode() & 0x7fffffff) % m;
+    }
+
+    /**
+     * Gets the lock that guards the specified key. It only depends on the key, so the same lock
+     * is used before and after a resize, and it is also the lock of the bucket of the key.
+     *
+     * @param key the key
+     * @return the index of the lock
+     */
+    private int stripe(Object key) {
+        return hash(key, locks.length);
+    }
+
+    /**
+     * Finds the node with the specified key in a bucket.
+     *
+     * @param node the first node of the bucket
+     * @param key  the key
+     * @return the node with the key, or null if the key doesn't exist
+     */
+    private static <K, V> Node<K, V> find(Node<K, V> node, K key) {
+        while (node != null) {
+            if (node.key.equals(key)) {
+                return node;
+            }
+            node = node.next;
+        }
+        return null;
+    }
+
+    /**
+     * Gets the size of the hash table. The result is a snapshot and may already be outdated
+     * if other threads are writing.
+     *
+     * @return the size of the hash table
+     */
+    public int getSize() {
+        return size.intValue();
+    }
+
+    /**
+     * Gets the number of buckets of the hash table.
+     *
+     * @return the number of buckets
+     */
+    public int getBucketCount() {
+        return hashTable.length();
+    }
+
+    /**
+     * Adds a key, value pair to the hash table.
+     *
+     * @param key   the key of the pair
+     * @param value the value of the pair
+     */
+    public void add(K key, V value) {
+        int s = stripe(key);
+        int m;
+        locks[s].lock();
+        try {
+            AtomicReferenceArray<Node<K, V>> table = hashTable;
+            m = table.length();
+            int i = hash(key, m);
+            Node<K, V> first = table.get(i);
+            Node<K, V> node = find(first, key);
+            if (node != null) {
+                node.value = value;
+                return;
+            }
+            table.set(i, new Node<>(key, value, first));
+            size.increment();
+        } finally {
+            locks[s].unlock();
+        }
+
+        if (size.sum() >= (long) UPPER_TOL * m) {
+            resize(m, 2 * m);
+        }
+    }
+
+    /**
+     * Removes an element with the specified key.
+     *
+     * @param key the key of the element to be removed
+     * @return the value of the removed element, or null if the key doesn't exist
+     */
+    public V remove(K key) {
+        int s = stripe(key);
+        int m;
+        V ret;
+        locks[s].lock();
+        try {
+            AtomicReferenceArray<Node<K, V>> table = hashTable;
+            m = table.length();
+            int i = hash(key, m);
+            Node<K, V> first = table.get(i);
+            Node<K, V> node = find(first, key);
+            if (node == null) {
+                return null;
+            }
+            ret = node.value;
+
+            // Copies the nodes in front of the removed one so that a concurrent reader walking
+            // the old chain is not affected.
+            Node<K, V> newFirst = node.next;
+            for (Node<K, V> cur = first; cur != node; cur = cur.next) {
+                newFirst = new Node<>(cur.key, cur.value, newFirst);
+            }
+            table.set(i, newFirst);
+            size.decrement();
+        } finally {
+            locks[s].unlock();
+        }
+
+        if (size.sum() < (long) LOWER_TOL * m && m / 2 > initCapacity
+                && (m / 2) % locks.length == 0) {
+            resize(m, m / 2);
+        }
+        return ret;
+    }
+
+    /**
+     * Sets the value of an element with the specified key.
+     *
+     * @param key   the key of the element
+     * @param value the new value of the element
+     */
+    public void set(K key, V value) {
+        int s = stripe(key);
+        locks[s].lock();
+        try {
+            AtomicReferenceArray<Node<K, V>> table = hashTable;
+            Node<K, V> node = find(table.get(hash(key, table.length())), key);
+            if (node == null) {
+                throw new IllegalArgumentException(key + " doesn't exist!");
+            }
+            node.value = value;
+        } finally {
+            locks[s].unlock();
+        }
+    }
+
+    /**
+     * Checks if the hash table contains an element with the specified key. No lock is taken.
+     *
+     * @param key the specified key
+     * @return true if the hash table contains an element with the specified key, false otherwise
+     */
+    public boolean contains(K key) {
+        AtomicReferenceArray<Node<K, V>> table = hashTable;
+        return find(table.get(hash(key, table.length())), key) != null;
+    }
+
+    /**
+     * Gets the value of the element with the specified key. No lock is taken.
+     *
+     * @param key the specified key
+     * @return the value of the element with the specified key
+     */
+    public V get(K key) {
+        AtomicReferenceArray<Node<K, V>> table = hashTable;
+        Node<K, V> node = find(table.get(hash(key, table.length())), key);
+        return node == null ? null : node.value;
+    }
+
+    /**
+     * Resizes the table. All the locks are taken, so writers wait until the new bucket array is
+     * published, but readers keep using the old array in the meantime. The old nodes are copied
+     * rather than relinked so that the old array stays intact.
+     * <p>
+     * The size the caller read without the locks may be outdated, so the load is checked again
+     * once all the locks are held, and the table is only resized if it is still out of range.
+     *
+     * @param expectedM the number of buckets the caller saw, used to detect that another thread
+     *                  has already resized the table
+     * @param newM      the new number of buckets
+     */
+    private void resize(int expectedM, int newM) {
+        for (ReentrantLock lock : locks) {
+            lock.lock();
+        }
+        try {
+            AtomicReferenceArray<Node<K, V>> table = hashTable;
+            if (table.length() != expectedM) {
+                return;
+            }
+            long n = size.sum();
+            if (newM > expectedM ? n < (long) UPPER_TOL * expectedM
+                    : n >= (long) LOWER_TOL * expectedM) {
+                return;
+            }
+
+            AtomicReferenceArray<Node<K, V>> newHashTable = new AtomicReferenceArray<>(newM);
+            for (int i = 0; i < expectedM; i++) {
+                for (Node<K, V> node = table.get(i); node != null; node = node.next) {
+                    int j = hash(node.key, newM);
+                    newHashTable.set(j, new Node<>(node.key, node.value, newHashTable.get(j)));
+                }
+            }
+            hashTable = newHashTable;
+        } finally {
+            for (ReentrantLock lock : locks) {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,159 @@
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * This class checks the resizing of ConcurrentHashTable when the entries are spread unevenly
+ * over the stripes. Adding every key and removing the even ones again leaves the stripes of the
+ * even keys empty and the others full; the table must still grow with the number of entries
+ * instead of growing and shrinking in turn.
+ * <p>
+ * Usage: ConcurrentHashTableCheck [n] [threads], with 40000 keys and 8 threads by default. It
+ * prints "ok", or throws an IllegalStateException on the first failure.
+ */
+public class ConcurrentHashTableCheck {
+    // The most entries per bucket that a table may hold after a workload.
+    private static final int MAX_LOAD = 10;
+    // The longest time in milliseconds that a workload may take.
+    private static final long MAX_MILLIS = 10_000;
+
+    private ConcurrentHashTableCheck(){}
+
+    /**
+     * Throws if a condition does not hold.
+     *
+     * @param condition the condition
+     * @param message   the message of the failure
+     */
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException(message);
+        }
+    }
+
+    /**
+     * Adds the keys from lo to hi, and removes every even key right after adding it.
+     *
+     * @param table the table
+     * @param lo    the first key
+     * @param hi    the key after the last one
+     */
+    private static void addOddKeys(ConcurrentHashTable<Integer, Integer> table, int lo, int hi) {
+        for (int k = lo; k < hi; k++) {
+            table.add(k, k);
+            if (k % 2 == 0) {
+                check(table.remove(k) == k, "the value of " + k + " is lost");
+            }
+        }
+    }
+
+    /**
+     * Checks the size and the load of a table after the odd keys below n have been added.
+     *
+     * @param name   the name of the workload
+     * @param table  the table
+     * @param n      the number of keys
+     * @param millis the time the workload took
+     */
+    private static void checkTable(String name, ConcurrentHashTable<Integer, Integer> table,
+                                   int n, long millis) {
+        check(table.getSize() == n / 2, name + ": size is " + table.getSize());
+        for (int k = 0; k < n; k++) {
+            check(table.contains(k) == (k % 2 == 1), name + ": wrong contains for " + k);
+        }
+        check(table.getSize() <= MAX_LOAD * table.getBucketCount(),
+                name + ": " + table.getSize() + " entries in " + table.getBucketCount()
+                        + " buckets");
+        check(millis <= MAX_MILLIS, name + ": took " + millis + " ms");
+        System.out.printf("%-16s %d entries, %d buckets, %d ms%n", name, table.getSize(),
+                table.getBucketCount(), millis);
+    }
+
+    /**
+     * Runs the workload on one thread.
+     *
+     * @param n the number of keys
+     */
+    private static void singleThread(int n) {
+        ConcurrentHashTable<Integer, Integer> table = new ConcurrentHashTable<>();
+        long start = System.nanoTime();
+        addOddKeys(table, 0, n);
+        checkTable("single thread", table, n, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Runs the workload on several threads, each with its own range of keys.
+     *
+     * @param n       the number of keys
+     * @param threads the number of threads
+     * @throws InterruptedException if the current thread is interrupted
+     */
+    private static void multiThread(int n, int threads) throws InterruptedException {
+        ConcurrentHashTable<Integer, Integer> table = new ConcurrentHashTable<>();
+        Thread[] workers = new Thread[threads];
+        // The ranges start at even keys, so every thread removes the same keys as one thread.
+        int step = ((n + threads - 1) / threads + 1) & ~1;
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            int lo = Math.min(n, t * step);
+            int hi = Math.min(n, lo + step);
+            workers[t] = new Thread(() -> addOddKeys(table, lo, hi));
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        checkTable(threads + " threads", table, n, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Adds and removes random keys on several threads, and checks that the table shrinks back
+     * once most of them are gone.
+     *
+     * @param n       the number of keys
+     * @param threads the number of threads
+     * @throws InterruptedException if the current thread is interrupted
+     */
+    private static void shrink(int n, int threads) throws InterruptedException {
+        ConcurrentHashTable<Integer, Integer> table = new ConcurrentHashTable<>();
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int id = t;
+            workers[t] = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < n; i++) {
+                    int k = random.nextInt(n) * threads + id;
+                    if (table.contains(k)) {
+                        table.remove(k);
+                    } else {
+                        table.add(k, k);
+                    }
+                }
+                for (int k = id; k < n * threads; k += threads) {
+                    table.remove(k);
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        check(table.getSize() == 0, "shrink: size is " + table.getSize());
+        check(table.getBucketCount() < 4 * 64,
+                "shrink: " + table.getBucketCount() + " buckets are left");
+    }
+
+    /**
+     * Runs the checks.
+     *
+     * @param args the number of keys and the number of threads
+     * @throws InterruptedException if the current thread is interrupted
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 40_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+
+        singleThread(n);
+        multiThread(n, threads);
+        shrink(n, threads);
+        System.out.println("ok");
+    }
+}
@@ -0,0 +1,605 @@
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * This class is an implementation of a hash table that uses bucketized cuckoo hashing. Every key
+ * can only live in one of the 4 slots of either of its two buckets, or in a small stash, so a
+ * lookup compares at most 4 + 4 + STASH_SIZE keys no matter how full the table is, unless the
+ * overflow described below is in use. It has the same API as HashTable.
+ * <p>
+ * When both buckets of a new key are full, a random key of one bucket is kicked out to its other
+ * bucket, which may kick out another key, and so on. If this doesn't end after MAX_KICKS moves,
+ * the homeless key goes into the stash. Only when the stash is full as well is the table rebuilt
+ * with new hash functions, so one unlucky cycle doesn't cost a rehash.
+ * <p>
+ * Rebuilds and resizes are incremental, like the incremental resize of HashTable: a new, empty
+ * table is allocated, and every following add, remove and set moves REHASH_STEP buckets of the
+ * old table into it. In the meantime lookups search both tables, so they still compare a
+ * constant number of keys, and no single operation pays for moving the whole table. get and
+ * contains don't move anything, so they stay read-only.
+ * <p>
+ * New hash functions cannot separate keys with equal hash codes, which always share the same two
+ * buckets. So the homeless keys of a rebuild go into an overflow map that is searched after the
+ * stash, and after MAX_REHASHES rebuilds in a row that leave keys in the overflow, no more
+ * rebuilds are started for homeless keys. The overflow is empty unless more than
+ * 2 * SLOTS + STASH_SIZE keys share their buckets, and the next rebuild tries to move its keys
+ * back into the table, so add always terminates.
+ *
+ * @param <K> the generic type of the key
+ * @param <V> the generic type of the value
+ */
+public class CuckooHashTable<K, V> {
+    private static final int SLOTS = 4;
+    private static final int STASH_SIZE = 4;
+    private static final int MAX_KICKS = 256;
+    // The number of rebuilds in a row that leave keys in the overflow, after which a homeless key
+    // goes into the overflow without a rebuild.
+    private static final int MAX_REHASHES = 4;
+    // The number of old buckets moved to the new table by each add, remove and set during a
+    // rebuild.
+    private static final int REHASH_STEP = 4;
+    private static final double UPPER_LOAD = 0.9;
+    private static final double LOWER_LOAD = 0.125;
+    private static final int initBuckets = 4;
+
+    private Table table;
+    // The table that is being emptied during a rebuild, null otherwise. Its slots with an index
+    // smaller than rehashIndex have already been moved; its stash and its overflow are moved
+    // after all the slots.
+    private Table oldTable;
+    private int rehashIndex;
+    private Iterator<Map.Entry<Object, Object>> overflowIterator;
+    // The number of rebuilds in a row that ended with keys in the overflow.
+    private int failedRehashes;
+    private int size;
+    private final Random random = new Random();
+
+    /**
+     * An inner class that holds the slots, the stash and the overflow for one pair of hash
+     * functions.
+     */
+    private static class Table {
+        // The slots of bucket b are [b * SLOTS, (b + 1) * SLOTS). An empty slot has a null key.
+        public final Object[] keys;
+        public final Object[] values;
+        public final Object[] stashKeys = new Object[STASH_SIZE];
+        public final Object[] stashValues = new Object[STASH_SIZE];
+        public int stashSize;
+        // The keys that fit neither into the slots nor into the stash, or null if there are none.
+        public HashMap<Object, Object> overflow;
+        // mask = number of buckets - 1, where the number of buckets is always a power of two.
+        public final int mask;
+        private final int seed1;
+        private final int seed2;
+        private final Random random;
+
+        /**
+         * Constructor for the table class. It chooses new hash functions.
+         *
+         * @param buckets the number of buckets, which must be a power of two
+         * @param random  the source of the seeds and of the kicked slots
+         */
+        public Table(int buckets, Random random) {
+            keys = new Object[buckets * SLOTS];
+            values = new Object[buckets * SLOTS];
+            mask = buckets - 1;
+            seed1 = random.nextInt();
+            seed2 = random.nextInt();
+            this.random = random;
+        }
+
+        /**
+         * Gets the first bucket of a key.
+         *
+         * @param key the key
+         * @return the index of the first bucket
+         */
+        private int bucket1(Object key) {
+            return mix(key.hashCode(), seed1) & mask;
+        }
+
+        /**
+         * Gets the second bucket of a key.
+         *
+         * @param key the key
+         * @return the index of the second bucket
+         */
+        private int bucket2(Object key) {
+            return mix(key.hashCode(), seed2) & mask;
+        }
+
+        /**
+         * Finds the slot of a key in a bucket.
+         *
+         * @param b   the index of the bucket
+         * @param key the key
+         * @return the index of the slot, or -1 if the bucket doesn't hold the key
+         */
+        private int slotIn(int b, Object key) {
+            for (int i = b * SLOTS; i < (b + 1) * SLOTS; i++) {
+                if (key.equals(keys[i])) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Finds the slot of a key.
+         *
+         * @param key the key
+         * @return the index of the slot, or -1 if the key is not in a slot
+         */
+        public int indexOf(Object key) {
+            int i = slotIn(bucket1(key), key);
+            return i >= 0 ? i : slotIn(bucket2(key), key);
+        }
+
+        /**
+         * Finds a key in the stash.
+         *
+         * @param key the key
+         * @return the index in the stash, or -1 if the stash doesn't hold the key
+         */
+        public int stashIndexOf(Object key) {
+            for (int i = 0; i < stashSize; i++) {
+                if (stashKeys[i].equals(key)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Checks if the table holds a key.
+         *
+         * @param key the key
+         * @return true if the key is in a slot, the stash or the overflow, false otherwise
+         */
+        public boolean contains(Object key) {
+            return indexOf(key) >= 0 || stashIndexOf(key) >= 0
+                    || (overflow != null && overflow.containsKey(key));
+        }
+
+        /**
+         * Gets the value of a key.
+         *
+         * @param key the key
+         * @return the value of the key, or null if the table doesn't hold it
+         */
+        public Object get(Object key) {
+            int i = indexOf(key);
+            if (i >= 0) {
+                return values[i];
+            }
+            i = stashIndexOf(key);
+            if (i >= 0) {
+                return stashValues[i];
+            }
+            return overflow == null ? null : overflow.get(key);
+        }
+
+        /**
+         * Replaces the value of a key if the table holds it.
+         *
+         * @param key   the key
+         * @param value the new value
+         * @return true if the key exists, false otherwise
+         */
+        public boolean replace(Object key, Object value) {
+            int i = indexOf(key);
+            if (i >= 0) {
+                values[i] = value;
+                return true;
+            }
+            i = stashIndexOf(key);
+            if (i >= 0) {
+                stashValues[i] = value;
+                return true;
+            }
+            if (overflow != null && overflow.containsKey(key)) {
+                overflow.put(key, value);
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Removes a key that the table holds.
+         *
+         * @param key the key
+         * @return true if the key was in a slot, false if it was in the stash or the overflow
+         */
+        public boolean remove(Object key) {
+            int i = indexOf(key);
+            if (i >= 0) {
+                keys[i] = null;
+                values[i] = null;
+                return true;
+            }
+            i = stashIndexOf(key);
+            if (i >= 0) {
+                removeFromStash(i);
+            } else {
+                overflow.remove(key);
+                if (overflow.isEmpty()) {
+                    overflow = null;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Places a pair into a slot, or into the stash if it doesn't find one.
+         *
+         * @param key   the key
+         * @param value the value
+         * @return null if the pair or the key it kicked out found room, or the pair that is left
+         * homeless because the stash is full
+         */
+        public Object[] placeOrStash(Object key, Object value) {
+            Object[] homeless = place(key, value);
+            if (homeless == null) {
+                return null;
+            }
+            if (stashSize < STASH_SIZE) {
+                stashKeys[stashSize] = homeless[0];
+                stashValues[stashSize] = homeless[1];
+                stashSize++;
+                return null;
+            }
+            return homeless;
+        }
+
+        /**
+         * Inserts a key that doesn't exist yet into a slot, the stash or the overflow.
+         *
+         * @param key   the key
+         * @param value the value
+         */
+        public void insert(Object key, Object value) {
+            Object[] homeless = placeOrStash(key, value);
+            if (homeless == null) {
+                return;
+            }
+            if (overflow == null) {
+                overflow = new HashMap<>();
+            }
+            overflow.put(homeless[0], homeless[1]);
+        }
+
+        /**
+         * Places a pair into a slot by kicking keys to their other buckets.
+         *
+         * @param key   the key
+         * @param value the value
+         * @return null if every key found a slot, or the pair that was left without a slot
+         */
+        private Object[] place(Object key, Object value) {
+            int b = bucket1(key);
+            for (int kick = 0; kick <= MAX_KICKS; kick++) {
+                int alt = b == bucket1(key) ? bucket2(key) : bucket1(key);
+                if (putIntoEmptySlot(b, key, value) || putIntoEmptySlot(alt, key, value)) {
+                    return null;
+                }
+
+                // Both buckets are full. A random key of the bucket b is swapped with the current
+                // key, and continues in its own other bucket.
+                int victim = b * SLOTS + random.nextInt(SLOTS);
+                Object k = keys[victim];
+                Object v = values[victim];
+                keys[victim] = key;
+                values[victim] = value;
+                key = k;
+                value = v;
+                b = bucket1(key) == b ? bucket2(key) : bucket1(key);
+            }
+            return new Object[]{key, value};
+        }
+
+        /**
+         * Puts a pair into an empty slot of a bucket.
+         *
+         * @param b     the index of the bucket
+         * @param key   the key
+         * @param value the value
+         * @return true if the bucket had an empty slot, false otherwise
+         */
+        private boolean putIntoEmptySlot(int b, Object key, Object value) {
+            for (int i = b * SLOTS; i < (b + 1) * SLOTS; i++) {
+                if (keys[i] == null) {
+                    keys[i] = key;
+                    values[i] = value;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Moves the stashed keys whose buckets have an empty slot back into the slots.
+         */
+        public void drainStash() {
+            for (int i = stashSize - 1; i >= 0; i--) {
+                Object key = stashKeys[i];
+                if (putIntoEmptySlot(bucket1(key), key, stashValues[i])
+                        || putIntoEmptySlot(bucket2(key), key, stashValues[i])) {
+                    removeFromStash(i);
+                }
+            }
+        }
+
+        /**
+         * Removes the ith pair of the stash by moving the last pair into its place.
+         *
+         * @param i the index in the stash
+         */
+        public void removeFromStash(int i) {
+            stashSize--;
+            stashKeys[i] = stashKeys[stashSize];
+            stashValues[i] = stashValues[stashSize];
+            stashKeys[stashSize] = null;
+            stashValues[stashSize] = null;
+        }
+    }
+
+    /**
+     * Constructor for the class.
+     *
+     * @param expectedSize the number of entries the table should hold without resizing
+     */
+    public CuckooHashTable(int expectedSize) {
+        int buckets = initBuckets;
+        while (buckets * SLOTS * UPPER_LOAD <= expectedSize) {
+            buckets *= 2;
+        }
+        table = new Table(buckets, random);
+    }
+
+    /**
+     * No-argument constructor for the class.
+     */
+    public CuckooHashTable() {
+        this(0);
+    }
+
+    /**
+     * Mixes a hash code with a seed.
+     *
+     * @param h    the hash code
+     * @param seed the seed
+     * @return the mixed hash code
+     */
+    private static int mix(int h, int seed) {
+        h = (h ^ seed) * 0x85EBCA6B;
+        h = (h ^ (h >>> 13)) * 0xC2B2AE35;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Checks that a key is not null.
+     *
+     * @param key the key
+     * @throws IllegalArgumentException if the key is null
+     */
+    private static void checkKey(Object key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Key cannot be null.");
+        }
+    }
+
+    /**
+     * Gets the size of the hash table.
+     *
+     * @return the size of the hash table
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Checks if the hash table is empty.
+     *
+     * @return true if the hash table is empty, false otherwise
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Adds a key, value pair to the hash table. If the key already exists, its value is
+     * replaced.
+     * Time complexity = O(1) amortized
+     *
+     * @param key   the key of the pair
+     * @param value the value of the pair
+     */
+    public void add(K key, V value) {
+        checkKey(key);
+        rehashStep();
+        if (table.replace(key, value) || (oldTable != null && oldTable.replace(key, value))) {
+            return;
+        }
+
+        if (size + 1 > UPPER_LOAD * table.keys.length) {
+            startRehash(2 * (table.mask + 1));
+        }
+        insert(key, value);
+        size++;
+    }
+
+    /**
+     * Inserts a key that doesn't exist yet. If it is left homeless, a rebuild with new hash
+     * functions is started, and the key goes into the new table.
+     *
+     * @param key   the key
+     * @param value the value
+     */
+    private void insert(Object key, Object value) {
+        Object[] homeless = table.placeOrStash(key, value);
+        if (homeless == null) {
+            return;
+        }
+        // A rebuild is not started while another one is in progress, or after rebuilds have
+        // failed to separate some keys; the key goes into the overflow instead.
+        if (oldTable == null && failedRehashes < MAX_REHASHES) {
+            startRehash(table.mask + 1);
+        }
+        table.insert(homeless[0], homeless[1]);
+    }
+
+    /**
+     * Starts a rebuild with new hash functions. The pairs are moved by later operations.
+     *
+     * @param buckets the new number of buckets, which must be a power of two
+     */
+    private void startRehash(int buckets) {
+        // A table is never rebuilt twice at the same time, so the pending pairs are moved first.
+        // With the load factors above this practically never happens, because a rebuild
+        // finishes long before the size can cross another threshold.
+        finishRehash();
+        oldTable = table;
+        table = new Table(buckets, random);
+        rehashIndex = 0;
+        overflowIterator = null;
+    }
+
+    /**
+     * Moves up to REHASH_STEP buckets of the old table into the new one if a rebuild is in
+     * progress. After the slots, the stash is moved in one step, and then the overflow, with
+     * REHASH_STEP * SLOTS pairs per step.
+     */
+    private void rehashStep() {
+        if (oldTable == null) {
+            return;
+        }
+        // The pairs are inserted without nested rebuilds, so a rebuild always ends. The pairs
+        // that don't fit go into the overflow of the new table.
+        if (rehashIndex < oldTable.keys.length) {
+            int end = Math.min(oldTable.keys.length, rehashIndex + REHASH_STEP * SLOTS);
+            for (; rehashIndex < end; rehashIndex++) {
+                Object key = oldTable.keys[rehashIndex];
+                if (key != null) {
+                    table.insert(key, oldTable.values[rehashIndex]);
+                    oldTable.keys[rehashIndex] = null;
+                    oldTable.values[rehashIndex] = null;
+                }
+            }
+            return;
+        }
+
+        while (oldTable.stashSize > 0) {
+            int i = oldTable.stashSize - 1;
+            table.insert(oldTable.stashKeys[i], oldTable.stashValues[i]);
+            oldTable.removeFromStash(i);
+        }
+        if (oldTable.overflow != null) {
+            if (overflowIterator == null) {
+                overflowIterator = oldTable.overflow.entrySet().iterator();
+            }
+            for (int n = 0; n < REHASH_STEP * SLOTS && overflowIterator.hasNext(); n++) {
+                Map.Entry<Object, Object> e = overflowIterator.next();
+                table.insert(e.getKey(), e.getValue());
+                overflowIterator.remove();
+            }
+            if (overflowIterator.hasNext()) {
+                return;
+            }
+        }
+
+        oldTable = null;
+        overflowIterator = null;
+        failedRehashes = table.overflow == null ? 0 : failedRehashes + 1;
+    }
+
+    /**
+     * Moves all the remaining pairs if a rebuild is in progress.
+     */
+    private void finishRehash() {
+        while (oldTable != null) {
+            rehashStep();
+        }
+    }
+
+    /**
+     * Removes an element with the specified key.
+     *
+     * @param key the key of the element to be removed
+     * @return the value of the removed element, or null if the key doesn't exist
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(K key) {
+        checkKey(key);
+        rehashStep();
+        V ret;
+        if (table.contains(key)) {
+            ret = (V) table.get(key);
+            // A slot has been freed, so a stashed key may fit into the table again. The old
+            // table is not drained, because its stash may only move into slots not yet moved.
+            if (table.remove(key)) {
+                table.drainStash();
+            }
+        } else if (oldTable != null && oldTable.contains(key)) {
+            ret = (V) oldTable.get(key);
+            oldTable.remove(key);
+            // The key may have been removed from the overflow that is being moved, so the
+            // iterator is created again. The pairs already moved are gone from the overflow.
+            overflowIterator = null;
+        } else {
+            return null;
+        }
+        size--;
+
+        if (size < LOWER_LOAD * table.keys.length && table.mask + 1 > initBuckets) {
+            startRehash((table.mask + 1) / 2);
+        }
+        return ret;
+    }
+
+    /**
+     * Sets the value of an element with the specified key.
+     *
+     * @param key   the key of the element
+     * @param value the new value of the element
+     * @throws IllegalArgumentException if the key doesn't exist
+     */
+    public void set(K key, V value) {
+        checkKey(key);
+        rehashStep();
+        if (!table.replace(key, value) && (oldTable == null || !oldTable.replace(key, value))) {
+            throw new IllegalArgumentException(key + " doesn't exist!");
+        }
+    }
+
+    /**
+     * Checks if the hash table contains an element with the specified key.
+     * Time complexity = O(1) in the worst case, unless the overflow is used
+     *
+     * @param key the specified key
+     * @return true if the hash table contains an element with the specified key, false otherwise
+     */
+    public boolean contains(K key) {
+        checkKey(key);
+        return table.contains(key) || (oldTable != null && oldTable.contains(key));
+    }
+
+    /**
+     * Gets the value of the element with the specified key.
+     * Time complexity = O(1) in the worst case, unless the overflow is used
+     *
+     * @param key the specified key
+     * @return the value of the element with the specified key, or null if the key doesn't exist
+     */
+    @SuppressWarnings("unchecked")
+    public V get(K key) {
+        checkKey(key);
+        // A key is in exactly one of the two tables.
+        Object ret = table.get(key);
+        if (ret == null && oldTable != null) {
+            ret = oldTable.get(key);
+        }
+        return (V) ret;
+    }
+}
@@ -0,0 +1,46 @@
+/**
+ * An interface for the eviction policies of BoundedCache. A policy keeps the entries of the
+ * cache in its own order and decides which entry should be evicted next. Every method has to
+ * run in O(1) time.
+ *
+ * @param <K> the generic type of the key
+ * @param <V> the generic type of the value
+ */
+public interface EvictionPolicy<K, V> {
+    /**
+     * Tells the policy the maximum total weight of the cache. It is called once, before any
+     * other method.
+     *
+     * @param maximumWeight the maximum total weight
+     */
+    void setMaximum(long maximumWeight);
+
+    /**
+     * Records that an entry has been added to the cache.
+     *
+     * @param entry the added entry
+     */
+    void onAdd(BoundedCache.Entry<K, V> entry);
+
+    /**
+     * Records that an entry has been read or overwritten.
+     *
+     * @param entry the accessed entry
+     */
+    void onAccess(BoundedCache.Entry<K, V> entry);
+
+    /**
+     * Records that an entry has been removed from the cache by the user.
+     *
+     * @param entry the removed entry
+     */
+    void onRemove(BoundedCache.Entry<K, V> entry);
+
+    /**
+     * Chooses an entry to be evicted and forgets it. It is only called when the cache is not
+     * empty.
+     *
+     * @return the entry to be evicted
+     */
+    BoundedCache.Entry<K, V> evict();
+}
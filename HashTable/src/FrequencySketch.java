@@ -0,0 +1,134 @@
+/**
+ * This class is an implementation of a count-min sketch with 4-bit counters, which estimates how
+ * often a key has been seen using a small, fixed amount of memory. The counters are halved
+ * after a number of increments, so old popularity fades over time. It is the frequency filter
+ * of WTinyLfuPolicy.
+ * <p>
+ * The table can be enlarged with ensureCapacity while the number of tracked keys grows, which
+ * starts the counting over.
+ */
+public class FrequencySketch {
+    private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+    private static final long RESET_MASK = 0x7777777777777777L;
+
+    private static final int MIN_CAPACITY = 16;
+    private static final int MAX_CAPACITY = 1 << 26;
+
+    // Every long holds sixteen 4-bit counters.
+    private long[] table;
+    private int mask;
+    private int sampleSize;
+    private int additions;
+
+    /**
+     * Constructor for the class.
+     *
+     * @param maximumSize the number of distinct keys that are expected to be tracked
+     */
+    public FrequencySketch(long maximumSize) {
+        table = new long[0];
+        ensureCapacity(maximumSize);
+    }
+
+    /**
+     * Enlarges the table if it is too small for the number of keys. All the counters are reset
+     * when that happens. Since the table at least doubles every time, enlarging it costs O(1)
+     * amortized time per tracked key.
+     * Time complexity = O(1) if the table is large enough
+     *
+     * @param maximumSize the number of distinct keys that are expected to be tracked
+     */
+    public void ensureCapacity(long maximumSize) {
+        if (maximumSize <= table.length || table.length == MAX_CAPACITY) {
+            return;
+        }
+        int capacity = MIN_CAPACITY;
+        while (capacity < maximumSize && capacity < MAX_CAPACITY) {
+            capacity *= 2;
+        }
+        table = new long[capacity];
+        mask = capacity - 1;
+        sampleSize = 10 * capacity;
+        additions = 0;
+    }
+
+    /**
+     * Spreads the bits of a hash code.
+     *
+     * @param x the hash code
+     * @return the spread hash code
+     */
+    private static int spread(int x) {
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        return (x >>> 16) ^ x;
+    }
+
+    /**
+     * Gets the index of the long that holds the ith counter of a hash code.
+     *
+     * @param hash the spread hash code
+     * @param i    the index of the hash function
+     * @return the index in the table
+     */
+    private int indexOf(int hash, int i) {
+        long h = (hash + SEEDS[i]) * SEEDS[i];
+        h += h >>> 32;
+        return (int) h & mask;
+    }
+
+    /**
+     * Estimates how many times the key has been seen, at most 15.
+     *
+     * @param key the key
+     * @return the estimated frequency
+     */
+    public int frequency(Object key) {
+        int hash = spread(key.hashCode());
+        // The 16 counters of a long are split into four groups, and every hash function uses a
+        // different group, chosen by the low bits of the hash code.
+        int start = (hash & 3) << 2;
+        int frequency = Integer.MAX_VALUE;
+        for (int i = 0; i < 4; i++) {
+            int offset = (start + i) << 2;
+            int count = (int) ((table[indexOf(hash, i)] >>> offset) & 0xfL);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    /**
+     * Increments the counters of the key, unless they are saturated.
+     *
+     * @param key the key
+     */
+    public void increment(Object key) {
+        int hash = spread(key.hashCode());
+        int start = (hash & 3) << 2;
+        boolean added = false;
+        for (int i = 0; i < 4; i++) {
+            int index = indexOf(hash, i);
+            int offset = (start + i) << 2;
+            long m = 0xfL << offset;
+            if ((table[index] & m) != m) {
+                table[index] += 1L << offset;
+                added = true;
+            }
+        }
+
+        if (added && ++additions == sampleSize) {
+            reset();
+        }
+    }
+
+    /**
+     * Halves every counter.
+     */
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions /= 2;
+    }
+}
@@ -1,4 +1,11 @@
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Spliterator;
 import java.util.TreeMap;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * This class is an implementation of a hash table structure.
@@ -10,18 +17,42 @@ public class HashTable<K, V> {
     private static final int UPPER_TOL = 10;
     private static final int LOWER_TOL = 2;
     private static final int initCapacity = 7;
+    // The number of old buckets moved to the new array by each operation during an incremental
+    // resize.
+    private static final int REHASH_STEP = 4;
 
     private TreeMap<K, V>[] hashTable;
     private int M;
     private int size;
 
+    // If true, resizing keeps the old bucket array alive and moves a few buckets on every
+    // operation instead of rebuilding the whole table at once.
+    private final boolean incrementalResize;
+    // The bucket array that is being emptied during an incremental resize, null otherwise.
+    // Buckets with an index smaller than rehashIndex have already been moved.
+    private TreeMap<K, V>[] oldHashTable;
+    private int oldM;
+    private int rehashIndex;
+
+    // The metrics are only recorded while metricsEnabled is true. When it is false, the only
+    // cost is one branch per operation.
+    private boolean metricsEnabled;
+    private long lookups;
+    private long comparisons;
+    private int resizeCount;
+    private long resizeNanos;
+
     /**
      * Constructor for the class.
      *
-     * @param M
+     * @param M                 the initial number of buckets
+     * @param incrementalResize true if the table should be resized incrementally, which bounds
+     *                          the time of every operation at the cost of keeping two bucket
+     *                          arrays alive while a resize is in progress
      */
-    public HashTable(int M) {
+    public HashTable(int M, boolean incrementalResize) {
         this.M = M;
+        this.incrementalResize = incrementalResize;
         size = 0;
         hashTable = new TreeMap[M];
         for (int i = 0; i < M; i++) {
@@ -29,6 +60,15 @@ public class HashTable<K, V> {
         }
     }
 
+    /**
+     * Constructor for the class.
+     *
+     * @param M the initial number of buckets
+     */
+    public HashTable(int M) {
+        this(M, false);
+    }
+
     /**
      * No-argument constructor for the class.
      */
@@ -36,6 +76,32 @@ public class HashTable<K, V> {
         this(initCapacity);
     }
 
+    /**
+     * Creates a hash table whose number of buckets is chosen for the expected number of
+     * elements, so that adding them doesn't trigger any resize.
+     *
+     * @param expectedSize the expected number of elements
+     * @param <K>          the generic type of the key
+     * @param <V>          the generic type of the value
+     * @return an empty hash table
+     */
+    public static <K, V> HashTable<K, V> withExpectedSize(int expectedSize) {
+        return new HashTable<>(bucketsFor(expectedSize));
+    }
+
+    /**
+     * Computes the number of buckets for the specified number of elements. The average bucket
+     * then holds about (UPPER_TOL + LOWER_TOL) / 2 elements, which is far from both resize
+     * thresholds.
+     *
+     * @param size the number of elements
+     * @return the number of buckets
+     */
+    private static int bucketsFor(long size) {
+        long m = size / ((UPPER_TOL + LOWER_TOL) / 2) + 1;
+        return (int) Math.min(Integer.MAX_VALUE - 8, Math.max(initCapacity, m));
+    }
+
     /**
      * Creates a hash code.
      *
@@ -43,7 +109,73 @@ public class HashTable<K, V> {
      * @return a hash code
      */
     private int hash(K key) {
-        return (key.hashCode() & 0x7fffffff) % M;
+        return hash(key, M);
+    }
+
+    /**
+     * Creates a hash code for a table with the specified number of buckets.
+     *
+     * @param key the key
+     * @param m   the number of buckets
+     * @return a hash code
+     */
+    private int hash(K key, int m) {
+        return (key.hashCode() & 0x7fffffff) % m;
+    }
+
+    /**
+     * Gets the bucket that holds the specified key. While an incremental resize is in progress,
+     * a key whose old bucket hasn't been moved yet still lives in the old bucket array.
+     *
+     * @param key the key
+     * @return the bucket for the key, which may be null if it hasn't been created yet
+     */
+    private TreeMap<K, V> bucket(K key) {
+        TreeMap<K, V> map;
+        int oldIndex = oldHashTable != null ? hash(key, oldM) : -1;
+        if (oldIndex >= rehashIndex) {
+            map = oldHashTable[oldIndex];
+        } else {
+            map = hashTable[hash(key)];
+        }
+        if (metricsEnabled) {
+            recordLookup(map);
+        }
+        return map;
+    }
+
+    /**
+     * Records a lookup in the specified bucket. A tree map of n elements is a balanced tree of
+     * height floor(log2(n)) + 1, which is used as the number of comparisons.
+     *
+     * @param map the bucket, which may be null
+     */
+    private void recordLookup(TreeMap<K, V> map) {
+        lookups++;
+        if (map != null && !map.isEmpty()) {
+            comparisons += 32 - Integer.numberOfLeadingZeros(map.size());
+        }
+    }
+
+    /**
+     * Gets the bucket that holds the specified key, and creates it if it doesn't exist.
+     *
+     * @param key the key
+     * @return the bucket for the key
+     */
+    private TreeMap<K, V> bucketForWrite(K key) {
+        TreeMap<K, V>[] table;
+        int i = oldHashTable != null ? hash(key, oldM) : -1;
+        if (i >= rehashIndex) {
+            table = oldHashTable;
+        } else {
+            table = hashTable;
+            i = hash(key);
+        }
+        if (table[i] == null) {
+            table[i] = new TreeMap<>();
+        }
+        return table[i];
     }
 
     /**
@@ -62,7 +194,11 @@ public class HashTable<K, V> {
      * @param value the value of the pair
      */
     public void add(K key, V value) {
-        TreeMap<K, V> map = hashTable[hash(key)];
+        rehashStep();
+        TreeMap<K, V> map = bucketForWrite(key);
+        if (metricsEnabled) {
+            recordLookup(map);
+        }
         if (map.containsKey(key)) {
             map.put(key, value);
         } else {
@@ -82,9 +218,10 @@ public class HashTable<K, V> {
      * @return the value of the removed element
      */
     public V remove(K key) {
-        TreeMap<K, V> map = hashTable[hash(key)];
+        rehashStep();
+        TreeMap<K, V> map = bucket(key);
         V ret = null;
-        if (map.containsKey(key)) {
+        if (map != null && map.containsKey(key)) {
             ret = map.remove(key);
             size--;
 
@@ -102,8 +239,9 @@ public class HashTable<K, V> {
      * @param value the new value of the element
      */
     public void set(K key, V value) {
-        TreeMap<K, V> map = hashTable[hash(key)];
-        if (!map.containsKey(key)) {
+        rehashStep();
+        TreeMap<K, V> map = bucket(key);
+        if (map == null || !map.containsKey(key)) {
             throw new IllegalArgumentException(key + " doesn't exist!");
         }
         map.put(key, value);
@@ -116,7 +254,9 @@ public class HashTable<K, V> {
      * @return true if the hash table contains an element with the specified key, false otherwise
      */
     public boolean contains(K key) {
-        return hashTable[hash(key)].containsKey(key);
+        rehashStep();
+        TreeMap<K, V> map = bucket(key);
+        return map != null && map.containsKey(key);
     }
 
     /**
@@ -126,7 +266,86 @@ public class HashTable<K, V> {
      * @return the value of the element with the specified key
      */
     public V get(K key) {
-        return hashTable[hash(key)].get(key);
+        rehashStep();
+        TreeMap<K, V> map = bucket(key);
+        return map == null ? null : map.get(key);
+    }
+
+    /**
+     * Adds all the pairs of two parallel arrays. The table is resized at most once, before the
+     * first pair is added.
+     *
+     * @param keys   the keys of the pairs
+     * @param values the values of the pairs
+     * @throws IllegalArgumentException if the arrays have different lengths
+     */
+    public void addAll(K[] keys, V[] values) {
+        if (keys.length != values.length) {
+            throw new IllegalArgumentException("Keys and values must have the same length.");
+        }
+        ensureCapacity(keys.length);
+        for (int i = 0; i < keys.length; i++) {
+            add(keys[i], values[i]);
+        }
+    }
+
+    /**
+     * Adds all the pairs of an iterator. The table is resized at most once, before the first
+     * pair is added, as long as the iterator doesn't return more pairs than expected.
+     *
+     * @param pairs        the pairs
+     * @param expectedSize the expected number of pairs
+     */
+    public void addAll(Iterator<? extends Map.Entry<? extends K, ? extends V>> pairs,
+                       int expectedSize) {
+        ensureCapacity(expectedSize);
+        while (pairs.hasNext()) {
+            Map.Entry<? extends K, ? extends V> pair = pairs.next();
+            add(pair.getKey(), pair.getValue());
+        }
+    }
+
+    /**
+     * Adds all the pairs of an iterator whose length is unknown. The table grows as usual
+     * while the pairs are added.
+     *
+     * @param pairs the pairs
+     */
+    public void addAll(Iterator<? extends Map.Entry<? extends K, ? extends V>> pairs) {
+        addAll(pairs, 0);
+    }
+
+    /**
+     * Adds all the pairs of a stream. If the stream knows its size, the table is resized at
+     * most once, before the first pair is added.
+     *
+     * @param pairs the pairs
+     */
+    public void addAll(Stream<? extends Map.Entry<? extends K, ? extends V>> pairs) {
+        Spliterator<? extends Map.Entry<? extends K, ? extends V>> it = pairs.spliterator();
+        ensureCapacity(Math.max(0, it.getExactSizeIfKnown()));
+        it.forEachRemaining(pair -> add(pair.getKey(), pair.getValue()));
+    }
+
+    /**
+     * Makes sure that the table can hold the specified number of additional elements without a
+     * resize. All the elements are moved at once even in the incremental mode, since a bulk
+     * load is expected to take time anyway.
+     *
+     * @param additionalSize the number of elements that are about to be added
+     */
+    private void ensureCapacity(long additionalSize) {
+        long newSize = (long) size + additionalSize;
+        if (newSize < (long) UPPER_TOL * M) {
+            return;
+        }
+        finishRehash();
+        long start = metricsEnabled ? System.nanoTime() : 0;
+        rebuild(bucketsFor(newSize));
+        if (metricsEnabled) {
+            resizeCount++;
+            resizeNanos += System.nanoTime() - start;
+        }
     }
 
     /**
@@ -134,8 +353,40 @@ public class HashTable<K, V> {
      *
      * @param newM the new capacity of the tree map
      */
+    @SuppressWarnings({"unchecked", "rawtypes"})
     private void resize(int newM) {
-        TreeMap<K, V>[] newHashTable = new TreeMap<>[newM];
+        // A table is never resized twice at the same time, so the pending buckets are moved
+        // first. With the tolerances above this practically never happens, because a resize
+        // finishes long before the size can cross another threshold.
+        finishRehash();
+
+        long start = metricsEnabled ? System.nanoTime() : 0;
+        if (incrementalResize) {
+            // The new buckets are created lazily, so starting a resize only costs one array
+            // allocation.
+            oldHashTable = hashTable;
+            oldM = M;
+            rehashIndex = 0;
+            hashTable = new TreeMap[newM];
+            this.M = newM;
+        } else {
+            rebuild(newM);
+        }
+
+        if (metricsEnabled) {
+            resizeCount++;
+            resizeNanos += System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * Moves every element into a new bucket array at once.
+     *
+     * @param newM the new number of buckets
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void rebuild(int newM) {
+        TreeMap<K, V>[] newHashTable = new TreeMap[newM];
         for (int i = 0; i < newM; i++) {
             newHashTable[i] = new TreeMap<>();
         }
@@ -144,11 +395,214 @@ public class HashTable<K, V> {
         this.M = newM;
         for (int i = 0; i < oldM; i++) {
             TreeMap<K, V> map = hashTable[i];
-            for (K key : map.keySet()) {
-                newHashTable[hash(key)].put(key, map.get(key));
+            if (map == null) {
+                continue;
             }
+            map.forEach((key, value) -> newHashTable[hash(key)].put(key, value));
         }
 
         this.hashTable = newHashTable;
     }
+
+    /**
+     * Moves up to REHASH_STEP buckets from the old bucket array to the new one if an
+     * incremental resize is in progress.
+     */
+    private void rehashStep() {
+        if (oldHashTable == null) {
+            return;
+        }
+        long start = metricsEnabled ? System.nanoTime() : 0;
+        for (int n = 0; n < REHASH_STEP && rehashIndex < oldM; n++) {
+            TreeMap<K, V> map = oldHashTable[rehashIndex];
+            // The bucket is considered moved before its entries are put into the new array, so
+            // that bucketForWrite() looks up the new array.
+            rehashIndex++;
+            if (map != null) {
+                map.forEach((key, value) -> bucketForWrite(key).put(key, value));
+                oldHashTable[rehashIndex - 1] = null;
+            }
+        }
+        if (rehashIndex == oldM) {
+            oldHashTable = null;
+        }
+        if (metricsEnabled) {
+            resizeNanos += System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * Moves all the remaining buckets if an incremental resize is in progress.
+     */
+    private void finishRehash() {
+        while (oldHashTable != null) {
+            rehashStep();
+        }
+    }
+
+    /**
+     * Performs the given action for every element of the hash table. No entry object is created
+     * for the elements.
+     *
+     * @param action the action to be performed
+     */
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        // Every element is in the current bucket array once a pending resize is finished.
+        finishRehash();
+        for (TreeMap<K, V> map : hashTable) {
+            if (map != null) {
+                map.forEach(action);
+            }
+        }
+    }
+
+    /**
+     * Creates a spliterator over the elements of the hash table. It splits by ranges of
+     * buckets, so a parallel stream processes different buckets on different threads. The
+     * entries it returns are the entries of the tree maps, so no entry object is created. The
+     * hash table must not be modified while the spliterator is in use.
+     *
+     * @return a spliterator over the elements
+     */
+    public Spliterator<Map.Entry<K, V>> spliterator() {
+        finishRehash();
+        return new BucketSpliterator(hashTable, 0, M);
+    }
+
+    /**
+     * Creates a sequential stream of the elements of the hash table.
+     *
+     * @return a stream of the elements
+     */
+    public Stream<Map.Entry<K, V>> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * Creates a parallel stream of the elements of the hash table.
+     *
+     * @return a parallel stream of the elements
+     */
+    public Stream<Map.Entry<K, V>> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    /**
+     * An inner spliterator class that visits the buckets in the range [lo, hi).
+     */
+    private class BucketSpliterator implements Spliterator<Map.Entry<K, V>> {
+        private final TreeMap<K, V>[] table;
+        private int lo;
+        private final int hi;
+        // The iterator over the bucket that is being visited, or null.
+        private Iterator<Map.Entry<K, V>> current;
+
+        /**
+         * Constructor for the spliterator class.
+         *
+         * @param table the bucket array
+         * @param lo    the first bucket, inclusive
+         * @param hi    the last bucket, exclusive
+         */
+        public BucketSpliterator(TreeMap<K, V>[] table, int lo, int hi) {
+            this.table = table;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Map.Entry<K, V>> action) {
+            while (current == null || !current.hasNext()) {
+                if (lo >= hi) {
+                    return false;
+                }
+                TreeMap<K, V> map = table[lo++];
+                current = map == null ? null : map.entrySet().iterator();
+            }
+            action.accept(current.next());
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super Map.Entry<K, V>> action) {
+            if (current != null) {
+                current.forEachRemaining(action);
+                current = null;
+            }
+            for (; lo < hi; lo++) {
+                if (table[lo] != null) {
+                    for (Map.Entry<K, V> entry : table[lo].entrySet()) {
+                        action.accept(entry);
+                    }
+                }
+            }
+        }
+
+        @Override
+        public Spliterator<Map.Entry<K, V>> trySplit() {
+            int mid = (lo + hi) >>> 1;
+            if (mid <= lo) {
+                return null;
+            }
+            Spliterator<Map.Entry<K, V>> prefix = new BucketSpliterator(table, lo, mid);
+            // The bucket being visited, if any, stays with this spliterator, which is fine since
+            // the order of a hash table doesn't matter.
+            lo = mid;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return table.length == 0 ? 0 : (long) size * (hi - lo) / table.length;
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.DISTINCT | Spliterator.NONNULL;
+        }
+    }
+
+    /**
+     * Starts or stops recording metrics. The counters are kept when the recording stops, and
+     * reset when it starts again.
+     *
+     * @param enabled true to record metrics, false otherwise
+     */
+    public void setMetricsEnabled(boolean enabled) {
+        if (enabled && !metricsEnabled) {
+            lookups = 0;
+            comparisons = 0;
+            resizeCount = 0;
+            resizeNanos = 0;
+        }
+        metricsEnabled = enabled;
+    }
+
+    /**
+     * Takes a snapshot of the metrics. The bucket histogram is computed by visiting every
+     * bucket, so it takes O(M) time and works even if the recording is disabled.
+     *
+     * @return the snapshot
+     */
+    public HashTableMetrics getMetrics() {
+        int[] histogram = new int[HashTableMetrics.HISTOGRAM_BINS];
+        int longest = 0;
+        int buckets = M;
+        for (TreeMap<K, V> map : hashTable) {
+            int n = map == null ? 0 : map.size();
+            longest = Math.max(longest, n);
+            histogram[Math.min(n, histogram.length - 1)]++;
+        }
+        if (oldHashTable != null) {
+            // The buckets that haven't been moved yet are counted as well.
+            for (int i = rehashIndex; i < oldM; i++) {
+                int n = oldHashTable[i] == null ? 0 : oldHashTable[i].size();
+                longest = Math.max(longest, n);
+                histogram[Math.min(n, histogram.length - 1)]++;
+            }
+            buckets += oldM - rehashIndex;
+        }
+        return new HashTableMetrics(size, buckets, histogram, longest, lookups, comparisons,
+                resizeCount, resizeNanos);
+    }
 }
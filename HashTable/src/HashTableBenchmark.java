@@ -0,0 +1,84 @@
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.Function;
+
+/**
+ * This class compares the latency of get between CuckooHashTable and HashTable. Both tables are
+ * filled with the same n string keys, and then every lookup of a random existing key is timed on
+ * its own, so that the tail of the distribution is visible and not averaged away. Every table is
+ * measured once as a warm-up before the measured run.
+ * <p>
+ * A single System.nanoTime call costs some tens of nanoseconds, which is included in every
+ * sample; it is the same for both tables, so the difference between them is still meaningful.
+ * <p>
+ * Usage: HashTableBenchmark [n] [lookups], with 10^6 keys and 10^6 lookups by default.
+ */
+public class HashTableBenchmark {
+    private HashTableBenchmark(){}
+
+    /**
+     * Times every lookup on its own.
+     *
+     * @param get     looks up a key
+     * @param keys    the keys in the table
+     * @param lookups the number of lookups
+     * @return the latency of every lookup in nanoseconds, sorted
+     */
+    private static long[] measure(Function<String, Integer> get, String[] keys, int lookups) {
+        Random random = new Random(lookups);
+        long[] nanos = new long[lookups];
+        long sink = 0;
+        for (int i = 0; i < lookups; i++) {
+            String key = keys[random.nextInt(keys.length)];
+            long start = System.nanoTime();
+            Integer value = get.apply(key);
+            nanos[i] = System.nanoTime() - start;
+            sink += value;
+        }
+        if (sink == Long.MIN_VALUE) {
+            System.out.println("!");
+        }
+        Arrays.sort(nanos);
+        return nanos;
+    }
+
+    /**
+     * Measures one table and prints its percentiles.
+     *
+     * @param name    the name of the table
+     * @param get     looks up a key
+     * @param keys    the keys in the table
+     * @param lookups the number of lookups
+     */
+    private static void report(String name, Function<String, Integer> get, String[] keys,
+                               int lookups) {
+        measure(get, keys, lookups);
+        long[] nanos = measure(get, keys, lookups);
+        System.out.printf("%-16s %8d %8d %8d %8d%n", name, nanos[lookups / 2],
+                nanos[(int) (lookups * 0.99)], nanos[(int) (lookups * 0.999)],
+                nanos[lookups - 1]);
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args the number of keys and the number of lookups
+     */
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int lookups = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+
+        String[] keys = new String[n];
+        CuckooHashTable<String, Integer> cuckoo = new CuckooHashTable<>();
+        HashTable<String, Integer> hashTable = new HashTable<>();
+        for (int i = 0; i < n; i++) {
+            keys[i] = "key" + i;
+            cuckoo.add(keys[i], i);
+            hashTable.add(keys[i], i);
+        }
+
+        System.out.printf("%-16s %8s %8s %8s %8s%n", "table (ns)", "p50", "p99", "p99.9", "max");
+        report("CuckooHashTable", cuckoo::get, keys, lookups);
+        report("HashTable", hashTable::get, keys, lookups);
+    }
+}
@@ -0,0 +1,139 @@
+import java.util.Arrays;
+
+/**
+ * This class is a snapshot of the metrics of a HashTable. It shows whether a slow table suffers
+ * from poor hashing (a few long buckets) or from a high load factor (all buckets long).
+ */
+public class HashTableMetrics {
+    // The last bin of the histogram counts all the buckets with at least that many elements.
+    public static final int HISTOGRAM_BINS = 64;
+
+    private final int size;
+    private final int buckets;
+    private final int[] histogram;
+    private final int longestBucket;
+    private final long lookups;
+    private final long comparisons;
+    private final int resizeCount;
+    private final long resizeNanos;
+
+    /**
+     * Constructor for the class.
+     *
+     * @param size          the number of elements
+     * @param buckets       the number of buckets
+     * @param histogram     histogram[i] is the number of buckets that hold i elements
+     * @param longestBucket the number of elements of the longest bucket
+     * @param lookups       the number of lookups recorded
+     * @param comparisons   the estimated number of key comparisons of those lookups
+     * @param resizeCount   the number of resizes recorded
+     * @param resizeNanos   the time spent resizing, in nanoseconds
+     */
+    HashTableMetrics(int size, int buckets, int[] histogram, int longestBucket, long lookups,
+                     long comparisons, int resizeCount, long resizeNanos) {
+        this.size = size;
+        this.buckets = buckets;
+        this.histogram = histogram;
+        this.longestBucket = longestBucket;
+        this.lookups = lookups;
+        this.comparisons = comparisons;
+        this.resizeCount = resizeCount;
+        this.resizeNanos = resizeNanos;
+    }
+
+    /**
+     * Gets the number of elements.
+     *
+     * @return the number of elements
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Gets the number of buckets.
+     *
+     * @return the number of buckets
+     */
+    public int getBuckets() {
+        return buckets;
+    }
+
+    /**
+     * Gets the average number of elements per bucket.
+     *
+     * @return the load factor
+     */
+    public double getLoadFactor() {
+        return buckets == 0 ? 0 : (double) size / buckets;
+    }
+
+    /**
+     * Gets the bucket occupancy histogram.
+     *
+     * @return a copy of the histogram, where element i is the number of buckets that hold i
+     * elements
+     */
+    public int[] getHistogram() {
+        return histogram.clone();
+    }
+
+    /**
+     * Gets the number of elements of the longest bucket.
+     *
+     * @return the number of elements of the longest bucket
+     */
+    public int getLongestBucket() {
+        return longestBucket;
+    }
+
+    /**
+     * Gets the number of lookups recorded while the metrics were enabled.
+     *
+     * @return the number of lookups
+     */
+    public long getLookups() {
+        return lookups;
+    }
+
+    /**
+     * Gets the average number of key comparisons per lookup. A lookup in a bucket of n elements
+     * is counted as floor(log2(n)) + 1 comparisons, the height of a balanced tree map.
+     *
+     * @return the average number of comparisons per lookup
+     */
+    public double getAverageComparisons() {
+        return lookups == 0 ? 0 : (double) comparisons / lookups;
+    }
+
+    /**
+     * Gets the number of resizes recorded while the metrics were enabled.
+     *
+     * @return the number of resizes
+     */
+    public int getResizeCount() {
+        return resizeCount;
+    }
+
+    /**
+     * Gets the time spent resizing while the metrics were enabled.
+     *
+     * @return the time in nanoseconds
+     */
+    public long getResizeNanos() {
+        return resizeNanos;
+    }
+
+    @Override
+    public String toString() {
+        int last = histogram.length - 1;
+        while (last > 0 && histogram[last] == 0) {
+            last--;
+        }
+        return String.format("HashTableMetrics: size = %d, buckets = %d, load factor = %.2f, "
+                        + "longest bucket = %d, lookups = %d, average comparisons = %.2f, "
+                        + "resizes = %d (%.3f ms)%nhistogram = %s",
+                size, buckets, getLoadFactor(), longestBucket, lookups, getAverageComparisons(),
+                resizeCount, resizeNanos / 1e6, Arrays.toString(Arrays.copyOf(histogram, last + 1)));
+    }
+}
@@ -0,0 +1,350 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * This class saves a HashTable to a compact binary file and restores it. The file has the
+ * following layout, with all numbers in big-endian order:
+ * <pre>
+ *   int  magic
+ *   int  version
+ *   long number of entries
+ *   for every entry: int length, key bytes, value bytes (length = key bytes + value bytes)
+ *   long CRC32 of all the bytes above
+ * </pre>
+ * How keys and values are turned into bytes is decided by a Codec, so any type can be stored.
+ */
+public class HashTableSnapshot {
+    private static final int MAGIC = 0x48545331;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int TRAILER_SIZE = 8;
+    // The smallest entry is its length alone, with empty key and value bytes.
+    private static final int MIN_ENTRY_SIZE = 4;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private HashTableSnapshot() {
+    }
+
+    /**
+     * An interface that turns values of a type into bytes and back.
+     *
+     * @param <T> the generic type of the values
+     */
+    public interface Codec<T> {
+        /**
+         * Writes a value at the position of the buffer. If the buffer is too small, a
+         * BufferOverflowException is thrown, and the caller retries with a larger buffer.
+         *
+         * @param value  the value
+         * @param buffer the buffer
+         */
+        void write(T value, ByteBuffer buffer);
+
+        /**
+         * Reads a value from the position of the buffer.
+         *
+         * @param buffer the buffer
+         * @return the value
+         */
+        T read(ByteBuffer buffer);
+    }
+
+    /**
+     * A codec for integers, 4 bytes each.
+     */
+    public static final Codec<Integer> INTEGER = new Codec<Integer>() {
+        @Override
+        public void write(Integer value, ByteBuffer buffer) {
+            buffer.putInt(value);
+        }
+
+        @Override
+        public Integer read(ByteBuffer buffer) {
+            return buffer.getInt();
+        }
+    };
+
+    /**
+     * A codec for longs, 8 bytes each.
+     */
+    public static final Codec<Long> LONG = new Codec<Long>() {
+        @Override
+        public void write(Long value, ByteBuffer buffer) {
+            buffer.putLong(value);
+        }
+
+        @Override
+        public Long read(ByteBuffer buffer) {
+            return buffer.getLong();
+        }
+    };
+
+    /**
+     * A codec for strings, stored as UTF-8 bytes prefixed by their number.
+     */
+    public static final Codec<String> STRING = new Codec<String>() {
+        @Override
+        public void write(String value, ByteBuffer buffer) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            buffer.putInt(bytes.length);
+            buffer.put(bytes);
+        }
+
+        @Override
+        public String read(ByteBuffer buffer) {
+            byte[] bytes = new byte[buffer.getInt()];
+            buffer.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    };
+
+    /**
+     * Saves a hash table to a file, replacing the file if it exists. The snapshot is written to
+     * a new file next to it, which is synced to the storage device and then atomically moved
+     * over the old file, so a crash or an error while saving leaves the previous snapshot
+     * intact.
+     *
+     * @param table      the hash table
+     * @param path       the file
+     * @param keyCodec   the codec of the keys
+     * @param valueCodec the codec of the values
+     * @param <K>        the generic type of the key
+     * @param <V>        the generic type of the value
+     * @throws IOException if the file cannot be written
+     */
+    public static <K, V> void save(HashTable<K, V> table, Path path, Codec<? super K> keyCodec,
+                                   Codec<? super V> valueCodec) throws IOException {
+        Path tmp = Paths.get(path + ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                Writer writer = new Writer(channel);
+                writer.buffer.putInt(MAGIC);
+                writer.buffer.putInt(VERSION);
+                writer.buffer.putLong(table.getSize());
+                try {
+                    table.forEach((key, value) ->
+                            writer.writeEntry(key, keyCodec, value, valueCodec));
+                    writer.flush();
+                } catch (UncheckedIOException e) {
+                    throw e.getCause();
+                }
+
+                ByteBuffer trailer = ByteBuffer.allocate(TRAILER_SIZE);
+                trailer.putLong(0, writer.crc.getValue());
+                while (trailer.hasRemaining()) {
+                    channel.write(trailer);
+                }
+                channel.force(true);
+            }
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            try {
+                Files.deleteIfExists(tmp);
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Restores a hash table from a file. The table is created with the number of buckets for
+     * the number of entries in the file, so it is never resized while the entries are added.
+     * The header isn't covered by the checksum until the whole file is read, so the number of
+     * entries is first checked against the size of the file, and a corrupted header can't make
+     * it allocate more than the file could hold.
+     *
+     * @param path       the file
+     * @param keyCodec   the codec of the keys
+     * @param valueCodec the codec of the values
+     * @param <K>        the generic type of the key
+     * @param <V>        the generic type of the value
+     * @return the restored hash table
+     * @throws IOException if the file cannot be read, or is not a valid snapshot
+     */
+    public static <K, V> HashTable<K, V> restore(Path path, Codec<? extends K> keyCodec,
+                                                 Codec<? extends V> valueCodec)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            Reader reader = new Reader(channel);
+            ByteBuffer header = reader.next(HEADER_SIZE);
+            if (header.getInt() != MAGIC) {
+                throw new IOException(path + " is not a hash table snapshot.");
+            }
+            if (header.getInt() != VERSION) {
+                throw new IOException("Unsupported snapshot version.");
+            }
+            long count = header.getLong();
+            long maxCount = (channel.size() - HEADER_SIZE - TRAILER_SIZE) / MIN_ENTRY_SIZE;
+            if (count < 0 || count > maxCount || count > Integer.MAX_VALUE) {
+                throw new IOException("Invalid number of entries: " + count);
+            }
+
+            HashTable<K, V> table = HashTable.withExpectedSize((int) count);
+            for (long i = 0; i < count; i++) {
+                int length = reader.next(4).getInt();
+                ByteBuffer entry = reader.next(length);
+                try {
+                    table.add(keyCodec.read(entry), valueCodec.read(entry));
+                } catch (BufferUnderflowException e) {
+                    throw new IOException("Corrupted entry " + i + ".");
+                }
+                if (entry.hasRemaining()) {
+                    throw new IOException("Corrupted entry " + i + ".");
+                }
+            }
+
+            long expected = reader.crc.getValue();
+            reader.checksum = false;
+            if (reader.next(TRAILER_SIZE).getLong() != expected) {
+                throw new IOException("Checksum mismatch in " + path + ".");
+            }
+            return table;
+        }
+    }
+
+    /**
+     * An inner class that writes entries through a buffer and keeps the checksum of everything
+     * written.
+     */
+    private static class Writer {
+        private final FileChannel channel;
+        private ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private final CRC32 crc = new CRC32();
+
+        /**
+         * Constructor for the writer class.
+         *
+         * @param channel the channel of the file
+         */
+        public Writer(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        /**
+         * Writes one entry. If it doesn't fit into the buffer, the buffer is flushed, and if it
+         * doesn't fit into an empty buffer either, the buffer is enlarged.
+         *
+         * @param key        the key
+         * @param keyCodec   the codec of the key
+         * @param value      the value
+         * @param valueCodec the codec of the value
+         * @param <K>        the generic type of the key
+         * @param <V>        the generic type of the value
+         */
+        public <K, V> void writeEntry(K key, Codec<? super K> keyCodec, V value,
+                                      Codec<? super V> valueCodec) {
+            while (true) {
+                int start = buffer.position();
+                // The length is written first, so the entry doesn't fit if not even it does.
+                if (buffer.remaining() >= 4) {
+                    try {
+                        buffer.position(start + 4);
+                        keyCodec.write(key, buffer);
+                        valueCodec.write(value, buffer);
+                        buffer.putInt(start, buffer.position() - start - 4);
+                        return;
+                    } catch (BufferOverflowException e) {
+                        buffer.position(start);
+                    }
+                }
+                if (start == 0) {
+                    buffer = ByteBuffer.allocateDirect(buffer.capacity() * 2);
+                } else {
+                    flush();
+                }
+            }
+        }
+
+        /**
+         * Writes the content of the buffer to the file.
+         */
+        public void flush() {
+            buffer.flip();
+            crc.update(buffer.duplicate());
+            try {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            buffer.clear();
+        }
+    }
+
+    /**
+     * An inner class that reads a file through a buffer and keeps the checksum of everything
+     * read.
+     */
+    private static class Reader {
+        private final FileChannel channel;
+        private ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private final CRC32 crc = new CRC32();
+        private boolean checksum = true;
+
+        /**
+         * Constructor for the reader class.
+         *
+         * @param channel the channel of the file
+         */
+        public Reader(FileChannel channel) {
+            this.channel = channel;
+            buffer.flip();
+        }
+
+        /**
+         * Reads the next n bytes. n is checked against the rest of the file before the buffer
+         * is enlarged, so a corrupted length doesn't allocate more than the file holds.
+         *
+         * @param n the number of bytes
+         * @return a buffer that holds exactly the n bytes
+         * @throws IOException if the file ends before n bytes are read
+         */
+        public ByteBuffer next(int n) throws IOException {
+            if (n < 0) {
+                throw new IOException("Invalid length: " + n);
+            }
+            if (buffer.remaining() < n) {
+                if (n > buffer.remaining() + channel.size() - channel.position()) {
+                    throw new IOException("Unexpected end of the snapshot.");
+                }
+                if (buffer.capacity() < n) {
+                    int capacity = Math.max(n, buffer.capacity() * 2);
+                    ByteBuffer larger = ByteBuffer.allocateDirect(capacity);
+                    larger.put(buffer);
+                    buffer = larger;
+                } else {
+                    buffer.compact();
+                }
+                while (buffer.position() < n) {
+                    if (channel.read(buffer) < 0) {
+                        throw new IOException("Unexpected end of the snapshot.");
+                    }
+                }
+                buffer.flip();
+            }
+
+            ByteBuffer ret = buffer.slice();
+            ret.limit(n);
+            buffer.position(buffer.position() + n);
+            if (checksum) {
+                crc.update(ret.duplicate());
+            }
+            return ret;
+        }
+    }
+}
@@ -0,0 +1,319 @@
+/**
+ * This class is an implementation of a hash table that maps primitive int keys to primitive
+ * int values. Unlike HashTable, which keeps a tree map in every bucket, the pairs are stored
+ * directly in two flat arrays and collisions are resolved by linear probing, so no object is
+ * allocated per entry.
+ */
+public class IntIntHashTable {
+    private static final double UPPER_LOAD = 0.75;
+    private static final double LOWER_LOAD = 0.125;
+    private static final int initCapacity = 16;
+    // The largest power of two that an int array length can be.
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    // A slot whose key is 0 is empty, so the key 0 itself is stored outside of the arrays.
+    private int[] keys;
+    private int[] values;
+    private boolean hasZeroKey;
+    private int zeroValue;
+    // mask = capacity - 1, where capacity is always a power of two.
+    private int mask;
+    private int size;
+
+    /**
+     * Constructor for the class.
+     *
+     * @param expectedSize the number of entries the table should hold without resizing
+     * @throws IllegalArgumentException if expectedSize needs more than 2^30 slots
+     */
+    public IntIntHashTable(int expectedSize) {
+        int capacity = initCapacity;
+        while (capacity * UPPER_LOAD <= expectedSize) {
+            if (capacity == MAX_CAPACITY) {
+                throw new IllegalArgumentException(
+                        "expectedSize " + expectedSize + " is too large.");
+            }
+            capacity *= 2;
+        }
+        keys = new int[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        size = 0;
+    }
+
+    /**
+     * No-argument constructor for the class.
+     */
+    public IntIntHashTable() {
+        this(0);
+    }
+
+    /**
+     * Creates the index of the home slot of a key. The bits of the key are mixed first so that
+     * sequential ids do not end up in one long run of occupied slots.
+     *
+     * @param key the key
+     * @return the index of the home slot
+     */
+    private int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    /**
+     * Finds the slot that holds the specified non-zero key.
+     *
+     * @param key the key
+     * @return the index of the slot, or -1 if the key doesn't exist
+     */
+    private int indexOf(int key) {
+        int i = hash(key);
+        while (keys[i] != 0) {
+            if (keys[i] == key) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the size of the hash table.
+     *
+     * @return the size of the hash table
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Checks if the hash table is empty.
+     *
+     * @return true if the hash table is empty, false otherwise
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Adds a key, value pair to the hash table. If the key already exists, its value is
+     * replaced.
+     * Time complexity = O(1) on average
+     *
+     * @param key   the key of the pair
+     * @param value the value of the pair
+     */
+    public void add(int key, int value) {
+        if (key == 0) {
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                size++;
+            }
+            zeroValue = value;
+            return;
+        }
+
+        int i = hash(key);
+        while (keys[i] != 0) {
+            if (keys[i] == key) {
+                values[i] = value;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = value;
+        size++;
+
+        if (size >= UPPER_LOAD * keys.length) {
+            resize(keys.length * 2);
+        }
+    }
+
+    /**
+     * Adds delta to the value of the element with the specified key. If the key doesn't exist,
+     * it is added with delta as its value. This is the usual way to count occurrences of ids.
+     *
+     * @param key   the key of the element
+     * @param delta the amount to be added
+     * @return the new value of the element
+     */
+    public int addTo(int key, int delta) {
+        if (key == 0) {
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                size++;
+                zeroValue = 0;
+            }
+            zeroValue += delta;
+            return zeroValue;
+        }
+
+        int i = hash(key);
+        while (keys[i] != 0) {
+            if (keys[i] == key) {
+                values[i] += delta;
+                return values[i];
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = delta;
+        size++;
+
+        if (size >= UPPER_LOAD * keys.length) {
+            resize(keys.length * 2);
+        }
+        return delta;
+    }
+
+    /**
+     * Removes an element with the specified key.
+     *
+     * @param key the key of the element to be removed
+     * @return the value of the removed element
+     * @throws IllegalArgumentException if the key doesn't exist
+     */
+    public int remove(int key) {
+        int ret;
+        if (key == 0) {
+            if (!hasZeroKey) {
+                throw new IllegalArgumentException(key + " doesn't exist!");
+            }
+            hasZeroKey = false;
+            ret = zeroValue;
+        } else {
+            int i = indexOf(key);
+            if (i < 0) {
+                throw new IllegalArgumentException(key + " doesn't exist!");
+            }
+            ret = values[i];
+            shiftBack(i);
+        }
+        size--;
+
+        if (size < LOWER_LOAD * keys.length && keys.length / 2 >= initCapacity) {
+            resize(keys.length / 2);
+        }
+        return ret;
+    }
+
+    /**
+     * Empties the slot at index i. The entries after it in the same run are moved back so that
+     * every remaining key can still be reached from its home slot, which means no tombstones are
+     * needed.
+     *
+     * @param i the index of the slot to be emptied
+     */
+    private void shiftBack(int i) {
+        int j = i;
+        while (true) {
+            j = (j + 1) & mask;
+            if (keys[j] == 0) {
+                break;
+            }
+            int home = hash(keys[j]);
+            // The entry at j can fill the hole at i only if its home slot is not in (i, j].
+            if (((j - home) & mask) >= ((j - i) & mask)) {
+                keys[i] = keys[j];
+                values[i] = values[j];
+                i = j;
+            }
+        }
+        keys[i] = 0;
+        values[i] = 0;
+    }
+
+    /**
+     * Sets the value of an element with the specified key.
+     *
+     * @param key   the key of the element
+     * @param value the new value of the element
+     * @throws IllegalArgumentException if the key doesn't exist
+     */
+    public void set(int key, int value) {
+        if (key == 0) {
+            if (!hasZeroKey) {
+                throw new IllegalArgumentException(key + " doesn't exist!");
+            }
+            zeroValue = value;
+            return;
+        }
+        int i = indexOf(key);
+        if (i < 0) {
+            throw new IllegalArgumentException(key + " doesn't exist!");
+        }
+        values[i] = value;
+    }
+
+    /**
+     * Checks if the hash table contains an element with the specified key.
+     *
+     * @param key the specified key
+     * @return true if the hash table contains an element with the specified key, false otherwise
+     */
+    public boolean contains(int key) {
+        return key == 0 ? hasZeroKey : indexOf(key) >= 0;
+    }
+
+    /**
+     * Gets the value of the element with the specified key.
+     *
+     * @param key the specified key
+     * @return the value of the element with the specified key
+     * @throws IllegalArgumentException if the key doesn't exist
+     */
+    public int get(int key) {
+        if (key == 0) {
+            if (!hasZeroKey) {
+                throw new IllegalArgumentException(key + " doesn't exist!");
+            }
+            return zeroValue;
+        }
+        int i = indexOf(key);
+        if (i < 0) {
+            throw new IllegalArgumentException(key + " doesn't exist!");
+        }
+        return values[i];
+    }
+
+    /**
+     * Gets the value of the element with the specified key, or the default value if the key
+     * doesn't exist.
+     *
+     * @param key          the specified key
+     * @param defaultValue the value returned when the key doesn't exist
+     * @return the value of the element with the specified key, or the default value
+     */
+    public int getOrDefault(int key, int defaultValue) {
+        if (key == 0) {
+            return hasZeroKey ? zeroValue : defaultValue;
+        }
+        int i = indexOf(key);
+        return i < 0 ? defaultValue : values[i];
+    }
+
+    /**
+     * Resizes the arrays and reinserts every entry.
+     *
+     * @param newCapacity the new capacity, which must be a power of two
+     */
+    private void resize(int newCapacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+
+        keys = new int[newCapacity];
+        values = new int[newCapacity];
+        mask = newCapacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int j = hash(oldKeys[i]);
+                while (keys[j] != 0) {
+                    j = (j + 1) & mask;
+                }
+                keys[j] = oldKeys[i];
+                values[j] = oldValues[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/**
+ * This class implements the least recently used eviction policy. The entries are kept in a
+ * linked list in access order, and the entry at the front is evicted.
+ *
+ * @param <K> the generic type of the key
+ * @param <V> the generic type of the value
+ */
+public class LruPolicy<K, V> implements EvictionPolicy<K, V> {
+    private final BoundedCache.EntryList<K, V> list = new BoundedCache.EntryList<>();
+
+    /**
+     * LRU doesn't depend on the maximum weight.
+     *
+     * @param maximumWeight the maximum total weight
+     */
+    @Override
+    public void setMaximum(long maximumWeight) {
+    }
+
+    /**
+     * Adds the entry to the end of the list.
+     *
+     * @param entry the added entry
+     */
+    @Override
+    public void onAdd(BoundedCache.Entry<K, V> entry) {
+        list.addLast(entry);
+    }
+
+    /**
+     * Moves the entry to the end of the list.
+     *
+     * @param entry the accessed entry
+     */
+    @Override
+    public void onAccess(BoundedCache.Entry<K, V> entry) {
+        list.moveToLast(entry);
+    }
+
+    /**
+     * Removes the entry from the list.
+     *
+     * @param entry the removed entry
+     */
+    @Override
+    public void onRemove(BoundedCache.Entry<K, V> entry) {
+        list.remove(entry);
+    }
+
+    /**
+     * Removes and returns the least recently used entry.
+     *
+     * @return the entry to be evicted
+     */
+    @Override
+    public BoundedCache.Entry<K, V> evict() {
+        BoundedCache.Entry<K, V> victim = list.first();
+        list.remove(victim);
+        return victim;
+    }
+}
@@ -0,0 +1,417 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * This class is an implementation of a hash table that lives in a memory-mapped file instead of
+ * the Java heap. Keys and values are byte arrays of a fixed width, which is chosen when the file
+ * is created. Opening an existing file only maps it, so the table is available again right after
+ * a restart without being rebuilt.
+ * <p>
+ * The file starts with a header, followed by an array of slots. Every slot holds one state byte,
+ * the key and the value. Collisions are resolved by linear probing. The whole file is mapped as
+ * one buffer, so it cannot be larger than 2 GB.
+ */
+public class MappedHashTable implements Closeable {
+    private static final int MAGIC = 0x4D485431;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int SIZE_OFFSET = 20;
+    private static final double UPPER_LOAD = 0.75;
+    private static final int initCapacity = 1024;
+
+    private static final byte EMPTY = 0;
+    private static final byte USED = 1;
+
+    private final Path path;
+    private final int keySize;
+    private final int valueSize;
+    private final int slotSize;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    // mask = capacity - 1, where capacity is always a power of two.
+    private int capacity;
+    private int mask;
+    private int size;
+
+    /**
+     * Constructor for the class. Opens the table stored in the file, or creates a new one if the
+     * file doesn't exist.
+     *
+     * @param path      the file that stores the table
+     * @param keySize   the number of bytes of every key
+     * @param valueSize the number of bytes of every value
+     * @throws IOException if the file cannot be opened or mapped
+     * @throws IllegalArgumentException if the file holds a table with other key or value sizes
+     */
+    public MappedHashTable(Path path, int keySize, int valueSize) throws IOException {
+        if (keySize <= 0 || valueSize < 0) {
+            throw new IllegalArgumentException("Invalid key or value size.");
+        }
+        this.path = path;
+        this.keySize = keySize;
+        this.valueSize = valueSize;
+        this.slotSize = 1 + keySize + valueSize;
+
+        boolean exists = Files.exists(path) && Files.size(path) > 0;
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        if (exists) {
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+                channel.close();
+                throw new IllegalArgumentException(path + " is not a mapped hash table.");
+            }
+            if (header.getInt(8) != keySize || header.getInt(12) != valueSize) {
+                channel.close();
+                throw new IllegalArgumentException(path + " has other key or value sizes.");
+            }
+            capacity = header.getInt(16);
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize(capacity));
+            size = buffer.getInt(SIZE_OFFSET);
+        } else {
+            capacity = initCapacity;
+            buffer = create(channel, capacity);
+            size = 0;
+        }
+        mask = capacity - 1;
+    }
+
+    /**
+     * Gets the number of bytes of a file with the specified capacity.
+     *
+     * @param capacity the number of slots
+     * @return the number of bytes of the file
+     * @throws IllegalStateException if the file would be larger than one mapping allows
+     */
+    private long fileSize(int capacity) {
+        long bytes = HEADER_SIZE + (long) capacity * slotSize;
+        if (bytes > Integer.MAX_VALUE) {
+            throw new IllegalStateException("The table cannot grow beyond 2 GB.");
+        }
+        return bytes;
+    }
+
+    /**
+     * Maps an empty table into the specified channel and writes its header.
+     *
+     * @param channel  the channel of the file
+     * @param capacity the number of slots
+     * @return the mapped buffer
+     * @throws IOException if the file cannot be mapped
+     */
+    private MappedByteBuffer create(FileChannel channel, int capacity) throws IOException {
+        // Mapping a region beyond the end of the file grows the file, and the new bytes are
+        // zero, which marks every slot as empty.
+        channel.truncate(0);
+        MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                fileSize(capacity));
+        buf.putInt(0, MAGIC);
+        buf.putInt(4, VERSION);
+        buf.putInt(8, keySize);
+        buf.putInt(12, valueSize);
+        buf.putInt(16, capacity);
+        buf.putInt(SIZE_OFFSET, 0);
+        return buf;
+    }
+
+    /**
+     * Gets the offset of the slot with the specified index.
+     *
+     * @param i the index of the slot
+     * @return the offset of the slot in the file
+     */
+    private int offset(int i) {
+        return HEADER_SIZE + i * slotSize;
+    }
+
+    /**
+     * Creates the index of the home slot of a key, using the FNV-1a hash of its bytes.
+     *
+     * @param key the key
+     * @return the index of the home slot
+     */
+    private int hash(byte[] key) {
+        int h = 0x811C9DC5;
+        for (byte b : key) {
+            h = (h ^ (b & 0xff)) * 0x01000193;
+        }
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    /**
+     * Creates the index of the home slot of the key stored in a slot. It produces the same
+     * result as hash(byte[]) but reads the key from the file directly.
+     *
+     * @param buf the buffer that holds the slot
+     * @param i   the index of the slot
+     * @param m   the mask of the table that the result is for
+     * @return the index of the home slot
+     */
+    private int hashAt(MappedByteBuffer buf, int i, int m) {
+        int h = 0x811C9DC5;
+        int start = offset(i) + 1;
+        for (int k = start; k < start + keySize; k++) {
+            h = (h ^ (buf.get(k) & 0xff)) * 0x01000193;
+        }
+        return (h ^ (h >>> 16)) & m;
+    }
+
+    /**
+     * Checks if the slot holds the specified key.
+     *
+     * @param i   the index of the slot
+     * @param key the key
+     * @return true if the slot holds the key, false otherwise
+     */
+    private boolean keyEquals(int i, byte[] key) {
+        int start = offset(i) + 1;
+        for (int k = 0; k < keySize; k++) {
+            if (buffer.get(start + k) != key[k]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Finds the slot that holds the specified key.
+     *
+     * @param key the key
+     * @return the index of the slot, or -1 if the key doesn't exist
+     */
+    private int indexOf(byte[] key) {
+        checkKey(key);
+        int i = hash(key);
+        while (buffer.get(offset(i)) == USED) {
+            if (keyEquals(i, key)) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Checks if a key has the width of this table.
+     *
+     * @param key the key
+     * @throws IllegalArgumentException if the key has another width
+     */
+    private void checkKey(byte[] key) {
+        if (key.length != keySize) {
+            throw new IllegalArgumentException("The key must have " + keySize + " bytes.");
+        }
+    }
+
+    /**
+     * Checks if a value has the width of this table.
+     *
+     * @param value the value
+     * @throws IllegalArgumentException if the value has another width
+     */
+    private void checkValue(byte[] value) {
+        if (value.length != valueSize) {
+            throw new IllegalArgumentException("The value must have " + valueSize + " bytes.");
+        }
+    }
+
+    /**
+     * Writes the value into a slot.
+     *
+     * @param i     the index of the slot
+     * @param value the value
+     */
+    private void putValue(int i, byte[] value) {
+        buffer.put(offset(i) + 1 + keySize, value);
+    }
+
+    /**
+     * Gets the size of the hash table.
+     *
+     * @return the size of the hash table
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Checks if the hash table is empty.
+     *
+     * @return true if the hash table is empty, false otherwise
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Adds a key, value pair to the hash table. If the key already exists, its value is
+     * replaced.
+     *
+     * @param key   the key of the pair
+     * @param value the value of the pair
+     * @throws IOException if the file cannot be grown
+     */
+    public void add(byte[] key, byte[] value) throws IOException {
+        checkKey(key);
+        checkValue(value);
+
+        int i = hash(key);
+        while (buffer.get(offset(i)) == USED) {
+            if (keyEquals(i, key)) {
+                putValue(i, value);
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        buffer.put(offset(i), USED);
+        buffer.put(offset(i) + 1, key);
+        putValue(i, value);
+        size++;
+        buffer.putInt(SIZE_OFFSET, size);
+
+        if (size >= UPPER_LOAD * capacity) {
+            resize(capacity * 2);
+        }
+    }
+
+    /**
+     * Removes an element with the specified key.
+     *
+     * @param key the key of the element to be removed
+     * @return the value of the removed element, or null if the key doesn't exist
+     */
+    public byte[] remove(byte[] key) {
+        int i = indexOf(key);
+        if (i < 0) {
+            return null;
+        }
+        byte[] ret = new byte[valueSize];
+        buffer.get(offset(i) + 1 + keySize, ret);
+
+        // Moves the entries after the removed one back, so that no tombstones are needed.
+        int j = i;
+        while (true) {
+            j = (j + 1) & mask;
+            if (buffer.get(offset(j)) != USED) {
+                break;
+            }
+            int home = hashAt(buffer, j, mask);
+            if (((j - home) & mask) >= ((j - i) & mask)) {
+                for (int k = 0; k < slotSize; k++) {
+                    buffer.put(offset(i) + k, buffer.get(offset(j) + k));
+                }
+                i = j;
+            }
+        }
+        buffer.put(offset(i), EMPTY);
+        size--;
+        buffer.putInt(SIZE_OFFSET, size);
+        return ret;
+    }
+
+    /**
+     * Sets the value of an element with the specified key.
+     *
+     * @param key   the key of the element
+     * @param value the new value of the element
+     * @throws IllegalArgumentException if the key doesn't exist
+     */
+    public void set(byte[] key, byte[] value) {
+        checkValue(value);
+        int i = indexOf(key);
+        if (i < 0) {
+            throw new IllegalArgumentException("The key doesn't exist!");
+        }
+        putValue(i, value);
+    }
+
+    /**
+     * Checks if the hash table contains an element with the specified key.
+     *
+     * @param key the specified key
+     * @return true if the hash table contains an element with the specified key, false otherwise
+     */
+    public boolean contains(byte[] key) {
+        return indexOf(key) >= 0;
+    }
+
+    /**
+     * Gets the value of the element with the specified key.
+     *
+     * @param key the specified key
+     * @return a copy of the value of the element, or null if the key doesn't exist
+     */
+    public byte[] get(byte[] key) {
+        int i = indexOf(key);
+        if (i < 0) {
+            return null;
+        }
+        byte[] ret = new byte[valueSize];
+        buffer.get(offset(i) + 1 + keySize, ret);
+        return ret;
+    }
+
+    /**
+     * Resizes the table. The entries are copied into a new file next to the old one, which then
+     * replaces the old file, so a crash during a resize leaves the old file intact.
+     *
+     * @param newCapacity the new capacity, which must be a power of two
+     * @throws IOException if the new file cannot be created
+     */
+    private void resize(int newCapacity) throws IOException {
+        Path tmp = Paths.get(path + ".resize");
+        FileChannel newChannel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer newBuffer = create(newChannel, newCapacity);
+        int newMask = newCapacity - 1;
+
+        for (int i = 0; i < capacity; i++) {
+            if (buffer.get(offset(i)) == USED) {
+                int j = hashAt(buffer, i, newMask);
+                while (newBuffer.get(offset(j)) == USED) {
+                    j = (j + 1) & newMask;
+                }
+                for (int k = 0; k < slotSize; k++) {
+                    newBuffer.put(offset(j) + k, buffer.get(offset(i) + k));
+                }
+            }
+        }
+        newBuffer.putInt(SIZE_OFFSET, size);
+        newBuffer.force();
+
+        channel.close();
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        channel = newChannel;
+        buffer = newBuffer;
+        capacity = newCapacity;
+        mask = newMask;
+    }
+
+    /**
+     * Writes all the changes to the storage device.
+     */
+    public void force() {
+        buffer.force();
+    }
+
+    /**
+     * Writes all the changes to the storage device and closes the file. The table cannot be
+     * used after it is closed.
+     *
+     * @throws IOException if the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        buffer.force();
+        buffer = null;
+        channel.close();
+    }
+}
@@ -0,0 +1,239 @@
+/**
+ * This class is an implementation of a hash table that uses open addressing. The keys and
+ * values are stored in two flat arrays and collisions are resolved by linear probing, so
+ * adding a pair doesn't allocate a bucket or a tree node. It has the same API as HashTable.
+ *
+ * @param <K> the generic type of the key
+ * @param <V> the generic type of the value
+ */
+public class OpenHashTable<K, V> {
+    private static final double UPPER_LOAD = 0.75;
+    private static final double LOWER_LOAD = 0.125;
+    private static final int initCapacity = 16;
+    // The largest power of two that an int array length can be.
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    // A slot whose key is null is empty.
+    private Object[] keys;
+    private Object[] values;
+    // mask = capacity - 1, where capacity is always a power of two.
+    private int mask;
+    private int size;
+
+    /**
+     * Constructor for the class.
+     *
+     * @param expectedSize the number of entries the table should hold without resizing
+     * @throws IllegalArgumentException if expectedSize needs more than 2^30 slots
+     */
+    public OpenHashTable(int expectedSize) {
+        int capacity = initCapacity;
+        while (capacity * UPPER_LOAD <= expectedSize) {
+            if (capacity == MAX_CAPACITY) {
+                throw new IllegalArgumentException(
+                        "expectedSize " + expectedSize + " is too large.");
+            }
+            capacity *= 2;
+        }
+        keys = new Object[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        size = 0;
+    }
+
+    /**
+     * No-argument constructor for the class.
+     */
+    public OpenHashTable() {
+        this(0);
+    }
+
+    /**
+     * Creates the index of the home slot of a key. The high bits of the hash code are spread
+     * into the low bits because only the low bits are used.
+     *
+     * @param key the key
+     * @return the index of the home slot
+     */
+    private int hash(Object key) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    /**
+     * Finds the slot that holds the specified key.
+     *
+     * @param key the key
+     * @return the index of the slot, or -1 if the key doesn't exist
+     */
+    private int indexOf(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Key cannot be null.");
+        }
+        int i = hash(key);
+        while (keys[i] != null) {
+            if (keys[i].equals(key)) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the size of the hash table.
+     *
+     * @return the size of the hash table
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Checks if the hash table is empty.
+     *
+     * @return true if the hash table is empty, false otherwise
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Adds a key, value pair to the hash table. If the key already exists, its value is
+     * replaced.
+     * Time complexity = O(1) on average
+     *
+     * @param key   the key of the pair
+     * @param value the value of the pair
+     */
+    public void add(K key, V value) {
+        if (key == null) {
+            throw new IllegalArgumentException("Key cannot be null.");
+        }
+
+        int i = hash(key);
+        while (keys[i] != null) {
+            if (keys[i].equals(key)) {
+                values[i] = value;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = value;
+        size++;
+
+        if (size >= UPPER_LOAD * keys.length) {
+            resize(keys.length * 2);
+        }
+    }
+
+    /**
+     * Removes an element with the specified key.
+     *
+     * @param key the key of the element to be removed
+     * @return the value of the removed element, or null if the key doesn't exist
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(K key) {
+        int i = indexOf(key);
+        if (i < 0) {
+            return null;
+        }
+        V ret = (V) values[i];
+        shiftBack(i);
+        size--;
+
+        if (size < LOWER_LOAD * keys.length && keys.length / 2 >= initCapacity) {
+            resize(keys.length / 2);
+        }
+        return ret;
+    }
+
+    /**
+     * Empties the slot at index i. The entries after it in the same run are moved back so that
+     * every remaining key can still be reached from its home slot, which means no tombstones are
+     * needed.
+     *
+     * @param i the index of the slot to be emptied
+     */
+    private void shiftBack(int i) {
+        int j = i;
+        while (true) {
+            j = (j + 1) & mask;
+            if (keys[j] == null) {
+                break;
+            }
+            int home = hash(keys[j]);
+            // The entry at j can fill the hole at i only if its home slot is not in (i, j].
+            if (((j - home) & mask) >= ((j - i) & mask)) {
+                keys[i] = keys[j];
+                values[i] = values[j];
+                i = j;
+            }
+        }
+        keys[i] = null;
+        values[i] = null;
+    }
+
+    /**
+     * Sets the value of an element with the specified key.
+     *
+     * @param key   the key of the element
+     * @param value the new value of the element
+     * @throws IllegalArgumentException if the key doesn't exist
+     */
+    public void set(K key, V value) {
+        int i = indexOf(key);
+        if (i < 0) {
+            throw new IllegalArgumentException(key + " doesn't exist!");
+        }
+        values[i] = value;
+    }
+
+    /**
+     * Checks if the hash table contains an element with the specified key.
+     *
+     * @param key the specified key
+     * @return true if the hash table contains an element with the specified key, false otherwise
+     */
+    public boolean contains(K key) {
+        return indexOf(key) >= 0;
+    }
+
+    /**
+     * Gets the value of the element with the specified key.
+     *
+     * @param key the specified key
+     * @return the value of the element with the specified key, or null if the key doesn't exist
+     */
+    @SuppressWarnings("unchecked")
+    public V get(K key) {
+        int i = indexOf(key);
+        return i < 0 ? null : (V) values[i];
+    }
+
+    /**
+     * Resizes the arrays and reinserts every entry.
+     *
+     * @param newCapacity the new capacity, which must be a power of two
+     */
+    private void resize(int newCapacity) {
+        Object[] oldKeys = keys;
+        Object[] oldValues = values;
+
+        keys = new Object[newCapacity];
+        values = new Object[newCapacity];
+        mask = newCapacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                int j = hash(oldKeys[i]);
+                while (keys[j] != null) {
+                    j = (j + 1) & mask;
+                }
+                keys[j] = oldKeys[i];
+                values[j] = oldValues[i];
+            }
+        }
+    }
+}
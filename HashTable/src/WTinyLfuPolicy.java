@@ -0,0 +1,143 @@
+/**
+ * This class implements the W-TinyLFU eviction policy. New entries enter a small LRU window
+ * (1% of the maximum weight). Entries pushed out of the window join the probation segment of the
+ * main space, which is a segmented LRU. An entry accessed again while on probation is promoted
+ * to the protected segment (80% of the main space).
+ * <p>
+ * When something has to be evicted, the newest entry on probation (the candidate) competes with
+ * the oldest one (the victim), and the one that a FrequencySketch has seen less often is
+ * evicted. This keeps one-hit wonders from flushing out popular entries.
+ * <p>
+ * The sketch is sized by the number of entries rather than by their weight, which may be
+ * counted in bytes. It starts small and is enlarged as the cache fills up.
+ *
+ * @param <K> the generic type of the key
+ * @param <V> the generic type of the value
+ */
+public class WTinyLfuPolicy<K, V> implements EvictionPolicy<K, V> {
+    private static final int WINDOW = 0;
+    private static final int PROBATION = 1;
+    private static final int PROTECTED = 2;
+
+    private final BoundedCache.EntryList<K, V> window = new BoundedCache.EntryList<>();
+    private final BoundedCache.EntryList<K, V> probation = new BoundedCache.EntryList<>();
+    private final BoundedCache.EntryList<K, V> protectedList = new BoundedCache.EntryList<>();
+    private long windowMaximum;
+    private long protectedMaximum;
+    private FrequencySketch sketch;
+    // The number of entries in the three segments.
+    private long size;
+
+    /**
+     * Tells the policy the maximum total weight of the cache and sizes the segments.
+     *
+     * @param maximumWeight the maximum total weight
+     */
+    @Override
+    public void setMaximum(long maximumWeight) {
+        windowMaximum = Math.max(1, maximumWeight / 100);
+        protectedMaximum = (maximumWeight - windowMaximum) * 4 / 5;
+        sketch = new FrequencySketch(0);
+    }
+
+    /**
+     * Gets the list of the segment that the entry is in.
+     *
+     * @param entry the entry
+     * @return the list of the segment
+     */
+    private BoundedCache.EntryList<K, V> listOf(BoundedCache.Entry<K, V> entry) {
+        switch (entry.queue) {
+            case WINDOW:
+                return window;
+            case PROBATION:
+                return probation;
+            default:
+                return protectedList;
+        }
+    }
+
+    /**
+     * Adds the entry to the window, and moves the entries that don't fit into the window any
+     * more to probation.
+     *
+     * @param entry the added entry
+     */
+    @Override
+    public void onAdd(BoundedCache.Entry<K, V> entry) {
+        sketch.ensureCapacity(++size);
+        sketch.increment(entry.key);
+        entry.queue = WINDOW;
+        window.addLast(entry);
+
+        while (window.getWeight() > windowMaximum && window.first() != entry) {
+            BoundedCache.Entry<K, V> e = window.first();
+            window.remove(e);
+            e.queue = PROBATION;
+            probation.addLast(e);
+        }
+    }
+
+    /**
+     * Records the access in the sketch and moves the entry within its segment, or promotes it
+     * from probation to protected.
+     *
+     * @param entry the accessed entry
+     */
+    @Override
+    public void onAccess(BoundedCache.Entry<K, V> entry) {
+        sketch.increment(entry.key);
+        if (entry.queue != PROBATION) {
+            listOf(entry).moveToLast(entry);
+            return;
+        }
+
+        probation.remove(entry);
+        entry.queue = PROTECTED;
+        protectedList.addLast(entry);
+        // Demotes the least recently used protected entries if the segment is too heavy.
+        while (protectedList.getWeight() > protectedMaximum) {
+            BoundedCache.Entry<K, V> e = protectedList.first();
+            protectedList.remove(e);
+            e.queue = PROBATION;
+            probation.addLast(e);
+        }
+    }
+
+    /**
+     * Removes the entry from its segment.
+     *
+     * @param entry the removed entry
+     */
+    @Override
+    public void onRemove(BoundedCache.Entry<K, V> entry) {
+        listOf(entry).remove(entry);
+        size--;
+    }
+
+    /**
+     * Chooses the entry to be evicted by comparing the frequencies of the candidate and the
+     * victim on probation. If probation has fewer than two entries, the oldest entry of the
+     * protected segment or the window is evicted instead.
+     *
+     * @return the entry to be evicted
+     */
+    @Override
+    public BoundedCache.Entry<K, V> evict() {
+        size--;
+        BoundedCache.Entry<K, V> victim = probation.first();
+        if (victim == null) {
+            victim = protectedList.isEmpty() ? window.first() : protectedList.first();
+            listOf(victim).remove(victim);
+            return victim;
+        }
+
+        BoundedCache.Entry<K, V> candidate = probation.last();
+        if (candidate != victim && sketch.frequency(candidate.key) > sketch.frequency(victim.key)) {
+            probation.remove(victim);
+            return victim;
+        }
+        probation.remove(candidate);
+        return candidate;
+    }
+}
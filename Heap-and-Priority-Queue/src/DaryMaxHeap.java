@@ -0,0 +1,218 @@
+import java.util.Arrays;
+
+/**
+ * This class implements a maximum d-ary heap, where every element has up to d children instead
+ * of two. The tree is only log_d(n) levels high, so extractMax walks fewer levels than in
+ * MaxHeap, and the d children of an element are stored next to each other, so comparing them
+ * reads one or two cache lines instead of one line per level.
+ * <p>
+ * The elements are stored in an array, which is read and written directly. Sifting moves a
+ * hole along the path and writes the sifted element once at the end, instead of swapping it on
+ * every level. The root is stored at index d - 1, so that the children of every element start
+ * at an index that is a multiple of d, and a group of siblings is never split unnecessarily.
+ *
+ * @param <E> the generic type
+ */
+public class DaryMaxHeap<E extends Comparable<E>> {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    // The number of children of every element.
+    private final int d;
+    // The element with logical index i is stored in data[i + offset].
+    private final int offset;
+    private Object[] data;
+    private int size;
+
+    /**
+     * Constructor of the class.
+     *
+     * @param d        the number of children of every element, at least 2
+     * @param capacity the initial capacity of the heap
+     * @throws IllegalArgumentException if d is less than 2
+     */
+    public DaryMaxHeap(int d, int capacity) {
+        if (d < 2) {
+            throw new IllegalArgumentException("d must be at least 2.");
+        }
+        this.d = d;
+        offset = d - 1;
+        data = new Object[offset + Math.max(1, capacity)];
+    }
+
+    /**
+     * Constructor of the class.
+     *
+     * @param d the number of children of every element, at least 2
+     */
+    public DaryMaxHeap(int d) {
+        this(d, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a max heap from the elements of an array. The array is copied, not modified.
+     * Time complexity = O(n)
+     *
+     * @param d   the number of children of every element, at least 2
+     * @param arr the elements
+     */
+    public DaryMaxHeap(int d, E[] arr) {
+        this(d, arr.length);
+        System.arraycopy(arr, 0, data, offset, arr.length);
+        size = arr.length;
+
+        // Heapify - sifts down every element that has child element(s), from the last one.
+        for (int i = (size - 2) / d; i >= 0 && size > 1; i--) {
+            siftDown(i, elementAt(i));
+        }
+    }
+
+    /**
+     * Returns the size of the heap.
+     *
+     * @return the size of the heap
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns if the heap is empty.
+     *
+     * @return if the heap is empty
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the number of children of every element.
+     *
+     * @return d
+     */
+    public int getD() {
+        return d;
+    }
+
+    /**
+     * Returns the element with a logical index.
+     *
+     * @param index the logical index of an element
+     * @return the element
+     */
+    @SuppressWarnings("unchecked")
+    private E elementAt(int index) {
+        return (E) data[index + offset];
+    }
+
+    /**
+     * Adds an element to the heap. The element will be added to the end, and then sifted up along
+     * the path until it reaches an appropriate position.
+     * Time complexity = O(log_d n)
+     *
+     * @param e the element to be added
+     */
+    public void add(E e) {
+        if (size + offset == data.length) {
+            data = Arrays.copyOf(data, offset + size * 2);
+        }
+        siftUp(size++, e);
+    }
+
+    /**
+     * Sifts up an element from the kth position. The parents that are smaller than the element
+     * are moved down into the hole, and the element is written where the hole stops.
+     *
+     * @param k the index of the hole
+     * @param e the element to be placed
+     */
+    private void siftUp(int k, E e) {
+        while (k > 0) {
+            int parent = (k - 1) / d;
+            E p = elementAt(parent);
+            if (p.compareTo(e) >= 0) {
+                break;
+            }
+            data[k + offset] = p;
+            k = parent;
+        }
+        data[k + offset] = e;
+    }
+
+    /**
+     * Returns the max element of the heap.
+     *
+     * @return the max element of the heap
+     * @throws IllegalArgumentException if the heap is empty
+     */
+    public E findMax() {
+        if (size == 0) {
+            throw new IllegalArgumentException("Cannot find max in an empty heap.");
+        }
+        return elementAt(0);
+    }
+
+    /**
+     * Returns and removes the max element from the heap.
+     * Time complexity = O(d log_d n)
+     *
+     * @return the max element from the heap
+     */
+    public E extractMax() {
+        E ret = findMax();
+
+        size--;
+        E last = elementAt(size);
+        data[size + offset] = null;
+        if (size > 0) {
+            siftDown(0, last);
+        }
+        return ret;
+    }
+
+    /**
+     * Sifts down an element from the kth position. The biggest child is moved up into the hole
+     * while it is bigger than the element, and the element is written where the hole stops.
+     *
+     * @param k the index of the hole
+     * @param e the element to be placed
+     */
+    private void siftDown(int k, E e) {
+        while (true) {
+            int first = d * k + 1;
+            if (first >= size) {
+                break;
+            }
+            // Finds the biggest of the children, which are stored next to each other.
+            int last = Math.min(first + d, size);
+            int j = first;
+            E max = elementAt(first);
+            for (int c = first + 1; c < last; c++) {
+                E child = elementAt(c);
+                if (child.compareTo(max) > 0) {
+                    j = c;
+                    max = child;
+                }
+            }
+
+            if (e.compareTo(max) >= 0) {
+                break;
+            }
+            data[k + offset] = max;
+            k = j;
+        }
+        data[k + offset] = e;
+    }
+
+    /**
+     * Extracts the max element from the heap, replaces it with the specified element,
+     * and sift down the new element to the correct position.
+     *
+     * @param e the element to be added
+     * @return the max element
+     */
+    public E replace(E e) {
+        E ret = findMax();
+        siftDown(0, e);
+        return ret;
+    }
+}
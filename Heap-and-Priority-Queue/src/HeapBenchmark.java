@@ -0,0 +1,197 @@
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * This class measures the heaps on an extract-heavy workload: n random elements are added, and
+ * then all of them are extracted. Every measurement is repeated after a warm-up run, and the
+ * median throughput of the extractions is reported.
+ * <p>
+ * On HotSpot, the choice between the two children of DaryMaxHeap with d = 2 may be compiled
+ * into a conditional move, so the next level cannot be loaded before the comparison finishes,
+ * and it can be slower than MaxHeap. Running with "-XX:+UnlockExperimentalVMOptions
+ * -XX:ConditionalMoveLimit=0" shows the cost of the layout alone.
+ * <p>
+ * Usage: HeapBenchmark [n] [repetitions], with n = 10^6 and 5 repetitions by default.
+ */
+public class HeapBenchmark {
+    private HeapBenchmark(){}
+
+    /**
+     * A heap under test, which adds and then extracts all the elements.
+     */
+    private interface Candidate {
+        /**
+         * Adds the elements to a new heap.
+         *
+         * @param elements the elements
+         */
+        void fill(Integer[] elements);
+
+        /**
+         * Extracts all the elements.
+         *
+         * @return a value that depends on the elements, so that the work cannot be optimized away
+         */
+        long drain();
+    }
+
+    /**
+     * Measures MaxHeap.
+     */
+    private static class Binary implements Candidate {
+        private MaxHeap<Integer> heap;
+
+        /**
+         * Adds the elements to a new heap.
+         *
+         * @param elements the elements
+         */
+        @Override
+        public void fill(Integer[] elements) {
+            heap = new MaxHeap<>(elements.length);
+            for (Integer e : elements) {
+                heap.add(e);
+            }
+        }
+
+        /**
+         * Extracts all the elements.
+         *
+         * @return the sum of the elements
+         */
+        @Override
+        public long drain() {
+            long sum = 0;
+            while (!heap.isEmpty()) {
+                sum += heap.extractMax();
+            }
+            return sum;
+        }
+    }
+
+    /**
+     * Measures DaryMaxHeap with a given d.
+     */
+    private static class Dary implements Candidate {
+        private final int d;
+        private DaryMaxHeap<Integer> heap;
+
+        /**
+         * Constructor.
+         *
+         * @param d the number of children of every element
+         */
+        Dary(int d) {
+            this.d = d;
+        }
+
+        /**
+         * Adds the elements to a new heap.
+         *
+         * @param elements the elements
+         */
+        @Override
+        public void fill(Integer[] elements) {
+            heap = new DaryMaxHeap<>(d, elements.length);
+            for (Integer e : elements) {
+                heap.add(e);
+            }
+        }
+
+        /**
+         * Extracts all the elements.
+         *
+         * @return the sum of the elements
+         */
+        @Override
+        public long drain() {
+            long sum = 0;
+            while (!heap.isEmpty()) {
+                sum += heap.extractMax();
+            }
+            return sum;
+        }
+    }
+
+    /**
+     * Measures LongMaxHeap, which stores the elements unboxed.
+     */
+    private static class Primitive implements Candidate {
+        private LongMaxHeap heap;
+
+        /**
+         * Adds the elements to a new heap.
+         *
+         * @param elements the elements
+         */
+        @Override
+        public void fill(Integer[] elements) {
+            heap = new LongMaxHeap(elements.length);
+            for (Integer e : elements) {
+                heap.add(e);
+            }
+        }
+
+        /**
+         * Extracts all the elements.
+         *
+         * @return the sum of the elements
+         */
+        @Override
+        public long drain() {
+            long sum = 0;
+            while (!heap.isEmpty()) {
+                sum += heap.extractMax();
+            }
+            return sum;
+        }
+    }
+
+    /**
+     * Measures one heap and prints the result.
+     *
+     * @param name        the name of the heap
+     * @param candidate   the heap
+     * @param elements    the elements
+     * @param repetitions the number of measured runs
+     */
+    private static void measure(String name, Candidate candidate, Integer[] elements,
+                                int repetitions) {
+        candidate.fill(elements);
+        long sink = candidate.drain();
+        double[] throughput = new double[repetitions];
+        for (int r = 0; r < repetitions; r++) {
+            candidate.fill(elements);
+            long start = System.nanoTime();
+            sink += candidate.drain();
+            long nanos = System.nanoTime() - start;
+            throughput[r] = elements.length * 1e9 / Math.max(1, nanos);
+        }
+        Arrays.sort(throughput);
+        System.out.printf("%-16s %11d %14.0f%s%n", name, elements.length,
+                throughput[repetitions / 2], sink == Long.MIN_VALUE ? "!" : "");
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args the number of elements and the number of repetitions
+     */
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int repetitions = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        Random random = new Random(n);
+        Integer[] elements = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            elements[i] = random.nextInt();
+        }
+
+        System.out.printf("%-16s %11s %14s%n", "heap", "n", "extracts/s");
+        measure("MaxHeap", new Binary(), elements, repetitions);
+        for (int d : new int[]{2, 4, 8}) {
+            measure("DaryMaxHeap d=" + d, new Dary(d), elements, repetitions);
+        }
+        measure("LongMaxHeap", new Primitive(), elements, repetitions);
+    }
+}
@@ -5,16 +5,14 @@ public class HeapSort {
     private HeapSort(){}
 
     /**
-     * Sort and array using a max heap. Time complexity = O(nlogn) and space complexity = O(n).
+     * Sort and array using a max heap. The heap is built in O(n), and extracting the elements
+     * takes O(nlogn). Time complexity = O(nlogn) and space complexity = O(n).
      *
      * @param data the array
      * @param <E> the generic type
      */
     public static <E extends Comparable<E>> void sort(E[] data){
-        MaxHeap<E> maxHeap = new MaxHeap<>();
-        for(E e: data){
-            maxHeap.add(e);
-        }
+        MaxHeap<E> maxHeap = new MaxHeap<>(data);
 
         for(int i = data.length - 1; i >=0; i --){
             data[i] = maxHeap.extractMax();
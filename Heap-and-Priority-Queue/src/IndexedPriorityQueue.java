@@ -0,0 +1,292 @@
+import java.util.Arrays;
+
+/**
+ * This class implements an indexed priority queue over the handles 0 to capacity - 1, each with
+ * a double key. Unlike PriorityQueue, the key of an element that is already in the queue can be
+ * changed and an element can be removed, which is what Dijkstra's algorithm and A* need instead
+ * of adding the same vertex again and skipping the stale entries.
+ * <p>
+ * The queue is a binary heap of handles. pos[h] is the position of handle h in the heap, or -1
+ * if h is not in the queue, so a handle is found in O(1) and moved in O(log n). The keys are kept
+ * in a double array indexed by handle, so nothing is boxed. The queue is either a min queue or a
+ * max queue, chosen when it is created.
+ */
+public class IndexedPriorityQueue {
+    // heap[i] is the handle at the ith position of the heap.
+    private final int[] heap;
+    // pos[h] is the position of handle h in the heap, or -1 if it is not in the queue.
+    private final int[] pos;
+    // keys[h] is the key of handle h, if it is in the queue.
+    private final double[] keys;
+    // Whether the front of the queue is the smallest key rather than the largest.
+    private final boolean min;
+    private int size;
+
+    /**
+     * Constructor of the class.
+     *
+     * @param capacity the number of handles, which are 0 to capacity - 1
+     * @param min      true for a min queue, false for a max queue
+     */
+    public IndexedPriorityQueue(int capacity, boolean min) {
+        heap = new int[capacity];
+        pos = new int[capacity];
+        keys = new double[capacity];
+        this.min = min;
+        Arrays.fill(pos, -1);
+    }
+
+    /**
+     * Gets the number of elements of the queue.
+     *
+     * @return the number of elements
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Returns if the queue is empty.
+     *
+     * @return true if the queue is empty, false otherwise
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Checks that a handle is valid.
+     *
+     * @param h the handle
+     * @throws IllegalArgumentException if the handle is out of range
+     */
+    private void checkHandle(int h) {
+        if (h < 0 || h >= pos.length) {
+            throw new IllegalArgumentException("Invalid handle.");
+        }
+    }
+
+    /**
+     * Checks that a key can be ordered.
+     *
+     * @param key the key
+     * @throws IllegalArgumentException if the key is NaN
+     */
+    private static void checkKey(double key) {
+        if (Double.isNaN(key)) {
+            throw new IllegalArgumentException("The key cannot be NaN.");
+        }
+    }
+
+    /**
+     * Returns if a handle is in the queue.
+     * Time complexity = O(1)
+     *
+     * @param h the handle
+     * @return true if the handle is in the queue, false otherwise
+     */
+    public boolean contains(int h) {
+        checkHandle(h);
+        return pos[h] >= 0;
+    }
+
+    /**
+     * Gets the key of a handle.
+     * Time complexity = O(1)
+     *
+     * @param h the handle
+     * @return the key of the handle
+     * @throws IllegalArgumentException if the handle is not in the queue
+     */
+    public double keyOf(int h) {
+        if (!contains(h)) {
+            throw new IllegalArgumentException("Handle " + h + " doesn't exist!");
+        }
+        return keys[h];
+    }
+
+    /**
+     * Adds a handle with a key to the queue.
+     * Time complexity = O(log n)
+     *
+     * @param h   the handle
+     * @param key the key
+     * @throws IllegalArgumentException if the handle is already in the queue
+     */
+    public void enqueue(int h, double key) {
+        if (contains(h)) {
+            throw new IllegalArgumentException("Handle " + h + " already exists!");
+        }
+        checkKey(key);
+        keys[h] = key;
+        siftUp(size++, h);
+    }
+
+    /**
+     * Gets the handle at the front of the queue.
+     *
+     * @return the handle with the smallest key of a min queue, or the largest of a max queue
+     * @throws IllegalArgumentException if the queue is empty
+     */
+    public int getFront() {
+        if (size == 0) {
+            throw new IllegalArgumentException("Cannot get front of an empty queue.");
+        }
+        return heap[0];
+    }
+
+    /**
+     * Gets the key of the handle at the front of the queue.
+     *
+     * @return the key at the front
+     * @throws IllegalArgumentException if the queue is empty
+     */
+    public double getFrontKey() {
+        return keys[getFront()];
+    }
+
+    /**
+     * Removes the handle at the front of the queue.
+     * Time complexity = O(log n)
+     *
+     * @return the handle that was at the front
+     * @throws IllegalArgumentException if the queue is empty
+     */
+    public int dequeue() {
+        int ret = getFront();
+        remove(ret);
+        return ret;
+    }
+
+    /**
+     * Removes a handle from the queue. The last handle of the heap is moved into its position
+     * and sifted up or down, whichever is needed.
+     * Time complexity = O(log n)
+     *
+     * @param h the handle
+     * @throws IllegalArgumentException if the handle is not in the queue
+     */
+    public void remove(int h) {
+        if (!contains(h)) {
+            throw new IllegalArgumentException("Handle " + h + " doesn't exist!");
+        }
+        int k = pos[h];
+        pos[h] = -1;
+        size--;
+        if (k == size) {
+            return;
+        }
+        int last = heap[size];
+        if (k > 0 && before(last, heap[(k - 1) / 2])) {
+            siftUp(k, last);
+        } else {
+            siftDown(k, last);
+        }
+    }
+
+    /**
+     * Changes the key of a handle in either direction.
+     * Time complexity = O(log n)
+     *
+     * @param h   the handle
+     * @param key the new key
+     * @throws IllegalArgumentException if the handle is not in the queue
+     */
+    public void changeKey(int h, double key) {
+        double old = keyOf(h);
+        checkKey(key);
+        keys[h] = key;
+        // A handle that moves towards the front is sifted up, otherwise it is sifted down.
+        if (min ? key < old : key > old) {
+            siftUp(pos[h], h);
+        } else {
+            siftDown(pos[h], h);
+        }
+    }
+
+    /**
+     * Decreases the key of a handle, as the relaxation of an edge in Dijkstra's algorithm does.
+     * Time complexity = O(log n)
+     *
+     * @param h   the handle
+     * @param key the new key, which is not larger than the current key
+     * @throws IllegalArgumentException if the handle is not in the queue or the key is larger
+     */
+    public void decreaseKey(int h, double key) {
+        if (key > keyOf(h)) {
+            throw new IllegalArgumentException("The new key is larger than the current key.");
+        }
+        changeKey(h, key);
+    }
+
+    /**
+     * Increases the key of a handle.
+     * Time complexity = O(log n)
+     *
+     * @param h   the handle
+     * @param key the new key, which is not smaller than the current key
+     * @throws IllegalArgumentException if the handle is not in the queue or the key is smaller
+     */
+    public void increaseKey(int h, double key) {
+        if (key < keyOf(h)) {
+            throw new IllegalArgumentException("The new key is smaller than the current key.");
+        }
+        changeKey(h, key);
+    }
+
+    /**
+     * Returns if a handle should be closer to the front than another one.
+     *
+     * @param h the first handle
+     * @param g the second handle
+     * @return true if h goes before g, false otherwise
+     */
+    private boolean before(int h, int g) {
+        return min ? keys[h] < keys[g] : keys[h] > keys[g];
+    }
+
+    /**
+     * Sifts up a handle from the kth position. The parents that go after the handle are moved
+     * down into the hole, and the handle is written where the hole stops.
+     *
+     * @param k the index of the hole
+     * @param h the handle to be placed
+     */
+    private void siftUp(int k, int h) {
+        while (k > 0) {
+            int parent = (k - 1) / 2;
+            if (!before(h, heap[parent])) {
+                break;
+            }
+            heap[k] = heap[parent];
+            pos[heap[k]] = k;
+            k = parent;
+        }
+        heap[k] = h;
+        pos[h] = k;
+    }
+
+    /**
+     * Sifts down a handle from the kth position. The child that goes first is moved up into the
+     * hole while it goes before the handle, and the handle is written where the hole stops.
+     *
+     * @param k the index of the hole
+     * @param h the handle to be placed
+     */
+    private void siftDown(int k, int h) {
+        while (2 * k + 1 < size) {
+            int j = 2 * k + 1;
+            if (j + 1 < size && before(heap[j + 1], heap[j])) {
+                j++;
+            }
+            if (!before(heap[j], h)) {
+                break;
+            }
+            heap[k] = heap[j];
+            pos[heap[k]] = k;
+            k = j;
+        }
+        heap[k] = h;
+        pos[h] = k;
+    }
+}
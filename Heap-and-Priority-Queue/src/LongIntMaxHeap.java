@@ -0,0 +1,211 @@
+import java.util.Arrays;
+
+/**
+ * This class implements a maximum heap of long keys, each with an int payload such as an id.
+ * The keys and the payloads are stored in two parallel arrays, so adding and extracting
+ * allocate nothing.
+ * <p>
+ * The heap is 4-ary, like DaryMaxHeap with d = 4, so it is half as high as a binary heap, and
+ * the four children of every element are adjacent in memory, so they are read together. Sifting
+ * moves a hole instead of swapping.
+ */
+public class LongIntMaxHeap {
+    private static final int D = 4;
+    // The element with logical index i is stored at index i + OFFSET.
+    private static final int OFFSET = D - 1;
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private long[] keys;
+    // values[i] is the payload of keys[i].
+    private int[] values;
+    private int size;
+
+    /**
+     * Constructor of the class.
+     *
+     * @param capacity the initial capacity of the heap
+     */
+    public LongIntMaxHeap(int capacity) {
+        keys = new long[OFFSET + Math.max(1, capacity)];
+        values = new int[keys.length];
+    }
+
+    /**
+     * No-argument constructor of the class.
+     */
+    public LongIntMaxHeap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a heap from parallel arrays of keys and payloads. The arrays are copied, not
+     * modified.
+     * Time complexity = O(n)
+     *
+     * @param keys   the keys
+     * @param values the payloads
+     * @throws IllegalArgumentException if the arrays have different lengths
+     */
+    public LongIntMaxHeap(long[] keys, int[] values) {
+        this(keys.length);
+        if (keys.length != values.length) {
+            throw new IllegalArgumentException("Both arrays must have the same length.");
+        }
+        System.arraycopy(keys, 0, this.keys, OFFSET, keys.length);
+        System.arraycopy(values, 0, this.values, OFFSET, values.length);
+        size = keys.length;
+
+        // Heapify - sifts down every element that has child element(s), from the last one.
+        for (int i = (size - 2) / D; i >= 0 && size > 1; i--) {
+            siftDown(i, this.keys[i + OFFSET], this.values[i + OFFSET]);
+        }
+    }
+
+    /**
+     * Returns the size of the heap.
+     *
+     * @return the size of the heap
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns if the heap is empty.
+     *
+     * @return if the heap is empty
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Adds a key with its payload to the heap. The key will be added to the end, and then sifted
+     * up along the path until it reaches an appropriate position.
+     * Time complexity = O(log n)
+     *
+     * @param key   the key
+     * @param value the payload
+     */
+    public void add(long key, int value) {
+        if (size + OFFSET == keys.length) {
+            keys = Arrays.copyOf(keys, OFFSET + size * 2);
+            values = Arrays.copyOf(values, keys.length);
+        }
+        siftUp(size++, key, value);
+    }
+
+    /**
+     * Sifts up a key from the kth position. The parents that are smaller than the key are moved
+     * down into the hole, and the key is written where the hole stops.
+     *
+     * @param k     the index of the hole
+     * @param key   the key to be placed
+     * @param value the payload of the key
+     */
+    private void siftUp(int k, long key, int value) {
+        while (k > 0) {
+            int parent = (k - 1) / D;
+            long p = keys[parent + OFFSET];
+            if (key <= p) {
+                break;
+            }
+            keys[k + OFFSET] = p;
+            values[k + OFFSET] = values[parent + OFFSET];
+            k = parent;
+        }
+        keys[k + OFFSET] = key;
+        values[k + OFFSET] = value;
+    }
+
+    /**
+     * Returns the max key of the heap.
+     *
+     * @return the max key of the heap
+     * @throws IllegalArgumentException if the heap is empty
+     */
+    public long findMax() {
+        if (size == 0) {
+            throw new IllegalArgumentException("Cannot find max in an empty heap.");
+        }
+        return keys[OFFSET];
+    }
+
+    /**
+     * Returns the payload of the max key of the heap.
+     *
+     * @return the payload of the max key
+     * @throws IllegalArgumentException if the heap is empty
+     */
+    public int findMaxValue() {
+        findMax();
+        return values[OFFSET];
+    }
+
+    /**
+     * Removes the max key from the heap and returns its payload. The key can be read with
+     * findMax() beforehand.
+     * Time complexity = O(log n)
+     *
+     * @return the payload of the max key
+     */
+    public int extractMax() {
+        int ret = findMaxValue();
+
+        size--;
+        if (size > 0) {
+            siftDown(0, keys[size + OFFSET], values[size + OFFSET]);
+        }
+        return ret;
+    }
+
+    /**
+     * Sifts down a key from the kth position. The biggest child is moved up into the hole while
+     * it is bigger than the key, and the key is written where the hole stops.
+     *
+     * @param k     the index of the hole
+     * @param key   the key to be placed
+     * @param value the payload of the key
+     */
+    private void siftDown(int k, long key, int value) {
+        while (true) {
+            int first = D * k + 1;
+            if (first >= size) {
+                break;
+            }
+            // Finds the biggest of the children, which are stored next to each other.
+            int last = Math.min(first + D, size);
+            int j = first;
+            long best = keys[first + OFFSET];
+            for (int c = first + 1; c < last; c++) {
+                if (keys[c + OFFSET] > best) {
+                    j = c;
+                    best = keys[c + OFFSET];
+                }
+            }
+
+            if (best <= key) {
+                break;
+            }
+            keys[k + OFFSET] = best;
+            values[k + OFFSET] = values[j + OFFSET];
+            k = j;
+        }
+        keys[k + OFFSET] = key;
+        values[k + OFFSET] = value;
+    }
+
+    /**
+     * Removes the max key from the heap, adds the specified key with its payload, and returns
+     * the payload of the removed key. This takes one sift down instead of two operations.
+     *
+     * @param key   the key to be added
+     * @param value the payload of the key
+     * @return the payload of the removed key
+     */
+    public int replace(long key, int value) {
+        int ret = findMaxValue();
+        siftDown(0, key, value);
+        return ret;
+    }
+}
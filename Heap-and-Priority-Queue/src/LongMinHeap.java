@@ -0,0 +1,179 @@
+import java.util.Arrays;
+
+/**
+ * This class implements a minimum heap of longs, such as timestamps. The elements are stored in
+ * a long array, so nothing is boxed and no object is created per element.
+ * <p>
+ * The heap is 4-ary, like DaryMaxHeap with d = 4, so it is half as high as a binary heap, and
+ * the four children of every element are adjacent in memory, so they are read together. Sifting
+ * moves a hole instead of swapping.
+ */
+public class LongMinHeap {
+    private static final int D = 4;
+    // The element with logical index i is stored at index i + OFFSET.
+    private static final int OFFSET = D - 1;
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private long[] data;
+    private int size;
+
+    /**
+     * Constructor of the class.
+     *
+     * @param capacity the initial capacity of the heap
+     */
+    public LongMinHeap(int capacity) {
+        data = new long[OFFSET + Math.max(1, capacity)];
+    }
+
+    /**
+     * No-argument constructor of the class.
+     */
+    public LongMinHeap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a heap from the elements of an array. The array is copied, not modified.
+     * Time complexity = O(n)
+     *
+     * @param arr the elements
+     */
+    public LongMinHeap(long[] arr) {
+        this(arr.length);
+        System.arraycopy(arr, 0, data, OFFSET, arr.length);
+        size = arr.length;
+
+        // Heapify - sifts down every element that has child element(s), from the last one.
+        for (int i = (size - 2) / D; i >= 0 && size > 1; i--) {
+            siftDown(i, data[i + OFFSET]);
+        }
+    }
+
+    /**
+     * Returns the size of the heap.
+     *
+     * @return the size of the heap
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns if the heap is empty.
+     *
+     * @return if the heap is empty
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Adds an element to the heap. The element will be added to the end, and then sifted up along
+     * the path until it reaches an appropriate position.
+     * Time complexity = O(log n)
+     *
+     * @param e the element to be added
+     */
+    public void add(long e) {
+        if (size + OFFSET == data.length) {
+            data = Arrays.copyOf(data, OFFSET + size * 2);
+        }
+        siftUp(size++, e);
+    }
+
+    /**
+     * Sifts up an element from the kth position. The parents that are bigger than the element
+     * are moved down into the hole, and the element is written where the hole stops.
+     *
+     * @param k the index of the hole
+     * @param e the element to be placed
+     */
+    private void siftUp(int k, long e) {
+        while (k > 0) {
+            int parent = (k - 1) / D;
+            long p = data[parent + OFFSET];
+            if (e >= p) {
+                break;
+            }
+            data[k + OFFSET] = p;
+            k = parent;
+        }
+        data[k + OFFSET] = e;
+    }
+
+    /**
+     * Returns the min element of the heap.
+     *
+     * @return the min element of the heap
+     * @throws IllegalArgumentException if the heap is empty
+     */
+    public long findMin() {
+        if (size == 0) {
+            throw new IllegalArgumentException("Cannot find min in an empty heap.");
+        }
+        return data[OFFSET];
+    }
+
+    /**
+     * Returns and removes the min element from the heap.
+     * Time complexity = O(log n)
+     *
+     * @return the min element from the heap
+     */
+    public long extractMin() {
+        long ret = findMin();
+
+        size--;
+        if (size > 0) {
+            siftDown(0, data[size + OFFSET]);
+        }
+        return ret;
+    }
+
+    /**
+     * Sifts down an element from the kth position. The smallest child is moved up into the hole
+     * while it is smaller than the element, and the element is written where the hole stops.
+     *
+     * @param k the index of the hole
+     * @param e the element to be placed
+     */
+    private void siftDown(int k, long e) {
+        while (true) {
+            int first = D * k + 1;
+            if (first >= size) {
+                break;
+            }
+            // Finds the smallest of the children, which are stored next to each other.
+            int last = Math.min(first + D, size);
+            int j = first;
+            long best = data[first + OFFSET];
+            for (int c = first + 1; c < last; c++) {
+                if (data[c + OFFSET] < best) {
+                    j = c;
+                    best = data[c + OFFSET];
+                }
+            }
+
+            if (best >= e) {
+                break;
+            }
+            data[k + OFFSET] = best;
+            k = j;
+        }
+        data[k + OFFSET] = e;
+    }
+
+    /**
+     * Extracts the min element from the heap, replaces it with the specified element,
+     * and sift down the new element to the correct position.
+     *
+     * @param e the element to be added
+     * @return the min element
+     */
+    public long replace(long e) {
+        long ret = findMin();
+        siftDown(0, e);
+        return ret;
+    }
+}
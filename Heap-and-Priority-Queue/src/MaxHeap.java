@@ -1,9 +1,18 @@
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * This class implements the basic functions of a maximum binary heap.
  */
 public class MaxHeap<E extends Comparable<E>> {
+    // Heaps with at least this many elements are heapified in parallel.
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+    // Subtrees with fewer than about 2^SEQUENTIAL_SHIFT elements are heapified by one thread.
+    private static final int SEQUENTIAL_SHIFT = 13;
 
     // A list is used to store the elements for the heap.
     private ArrayList<E> data;
@@ -24,23 +33,119 @@ public class MaxHeap<E extends Comparable<E>> {
     }
 
     /**
-     * Constructs a max heap using a random list.
-     * @param arr
+     * Constructs a max heap using a random list. The list is copied, not modified.
+     * Time complexity = O(n)
+     *
+     * @param arr the elements
      */
     public MaxHeap(ArrayList<E> arr) {
-        // Puts the elements from the argument to the list.
-        for (int i = 0; i < arr.size(); i++) {
-            data.set(i, arr.get(i));
+        data = new ArrayList<>(arr);
+        heapify();
+    }
+
+    /**
+     * Constructs a max heap from the elements of a collection.
+     * Time complexity = O(n)
+     *
+     * @param c the elements
+     */
+    public MaxHeap(Collection<? extends E> c) {
+        data = new ArrayList<>(c);
+        heapify();
+    }
+
+    /**
+     * Constructs a max heap from the elements of an array. The array is copied, not modified.
+     * Time complexity = O(n)
+     *
+     * @param arr the elements
+     */
+    public MaxHeap(E[] arr) {
+        data = new ArrayList<>(Arrays.asList(arr));
+        heapify();
+    }
+
+    /**
+     * Constructs a max heap from the remaining elements of an iterator.
+     * Time complexity = O(n)
+     *
+     * @param it the elements
+     */
+    public MaxHeap(Iterator<? extends E> it) {
+        data = new ArrayList<>();
+        while (it.hasNext()) {
+            data.add(it.next());
         }
+        heapify();
+    }
 
-        // Heapify - from the last element that has child element(s) to the first element, conduct
-        // sifting down processing so that every element is in the right position.
-        // Time complexity =  O(n)
-        for (int i = parent(arr.size() - 1); i >= 0; i--) {
+    /**
+     * Heapify - from the last element that has child element(s) to the first element, conduct
+     * sifting down processing so that every element is in the right position. Building a heap
+     * this way takes O(n), while adding the elements one by one takes O(nlogn).
+     * <p>
+     * Large heaps are heapified with fork/join: the two subtrees of an element are independent,
+     * so they are heapified in parallel before the element itself is sifted down.
+     */
+    private void heapify() {
+        if (data.size() >= PARALLEL_THRESHOLD) {
+            ForkJoinPool.commonPool().invoke(new HeapifyTask(0));
+            return;
+        }
+        for (int i = (data.size() - 2) / 2; i >= 0; i--) {
             siftDown(i);
         }
     }
 
+    /**
+     * Heapifies the subtree of the kth element by one thread.
+     *
+     * @param k the index of the root of the subtree
+     */
+    private void heapify(int k) {
+        if (leftChild(k) >= data.size()) {
+            return;
+        }
+        heapify(leftChild(k));
+        heapify(rightChild(k));
+        siftDown(k);
+    }
+
+    /**
+     * A task that heapifies the subtree of an element. The subtrees only share their root's
+     * ancestors, which are sifted down after the subtrees are done, so the tasks never touch the
+     * same positions at the same time.
+     */
+    private class HeapifyTask extends RecursiveAction {
+        // RecursiveAction is Serializable, but the tasks are never serialized.
+        private static final long serialVersionUID = 1L;
+
+        private final int k;
+
+        /**
+         * Constructor of the class.
+         *
+         * @param k the index of the root of the subtree
+         */
+        HeapifyTask(int k) {
+            this.k = k;
+        }
+
+        /**
+         * Heapifies the subtree, splitting it while it is large.
+         */
+        @Override
+        protected void compute() {
+            // The subtree of the kth element holds about size / (k + 1) elements.
+            if (((long) k + 1 << SEQUENTIAL_SHIFT) >= data.size()) {
+                heapify(k);
+                return;
+            }
+            invokeAll(new HeapifyTask(leftChild(k)), new HeapifyTask(rightChild(k)));
+            siftDown(k);
+        }
+    }
+
     /**
      * Returns the size of the heap.
      *
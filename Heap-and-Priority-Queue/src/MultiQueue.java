@@ -0,0 +1,225 @@
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * This class implements a concurrent, relaxed priority queue (a MultiQueue). Instead of one
+ * heap behind one lock, it keeps c * p MaxHeaps, where p is the number of threads, and every
+ * heap has its own lock.
+ * <p>
+ * enqueue adds the element to a random heap. dequeue looks at the tops of two random heaps and
+ * extracts the larger one. A lock is only ever tried with tryLock, and a thread that fails just
+ * samples other heaps, so threads never wait for each other. The top of every heap is cached in
+ * a volatile field, so the two tops are compared without taking any lock.
+ * <p>
+ * dequeue does not always return the largest element, but one of the largest: the expected rank
+ * of the returned element is O(c * p). A larger c means less contention and a larger rank error.
+ *
+ * @param <E> the generic type
+ */
+public class MultiQueue<E extends Comparable<E>> implements Queue<E> {
+    // After this many failed attempts, dequeue scans all the heaps instead of sampling.
+    private static final int MAX_ATTEMPTS = 64;
+
+    private final Shard<E>[] shards;
+    private final AtomicInteger size = new AtomicInteger();
+
+    /**
+     * A heap with its lock and its cached top.
+     *
+     * @param <E> the generic type
+     */
+    private static class Shard<E extends Comparable<E>> {
+        public final ReentrantLock lock = new ReentrantLock();
+        public final MaxHeap<E> heap = new MaxHeap<>();
+        // The max element of the heap, or null if it is empty. It is only written while the lock
+        // is held, and it is read without the lock.
+        public volatile E top;
+
+        /**
+         * Updates the cached top after the heap has changed. The lock must be held.
+         */
+        public void updateTop() {
+            top = heap.isEmpty() ? null : heap.findMax();
+        }
+    }
+
+    /**
+     * Constructor of the class.
+     *
+     * @param threads the number of threads that use the queue
+     * @param c       the number of heaps per thread, which sets the relaxation
+     * @throws IllegalArgumentException if threads or c is not positive
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public MultiQueue(int threads, int c) {
+        if (threads <= 0 || c <= 0) {
+            throw new IllegalArgumentException("threads and c must be positive.");
+        }
+        // Two heaps at least, so that dequeue can sample two different heaps.
+        shards = new Shard[Math.max(2, threads * c)];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new Shard<>();
+        }
+    }
+
+    /**
+     * Constructor of the class, with two heaps per available processor.
+     */
+    public MultiQueue() {
+        this(Runtime.getRuntime().availableProcessors(), 2);
+    }
+
+    /**
+     * Gets the size of the queue.
+     *
+     * @return the size of the queue
+     */
+    @Override
+    public int getSize() {
+        return size.get();
+    }
+
+    /**
+     * Returns if the queue is empty.
+     *
+     * @return true if the queue is empty, false otherwise
+     */
+    @Override
+    public boolean isEmpty() {
+        return size.get() == 0;
+    }
+
+    /**
+     * Gets the number of internal heaps.
+     *
+     * @return the number of heaps
+     */
+    public int getHeapCount() {
+        return shards.length;
+    }
+
+    /**
+     * Enqueues an element into a random heap whose lock is free.
+     * Time complexity = O(log n)
+     *
+     * @param e the element to be enqueued
+     */
+    @Override
+    public void enqueue(E e) {
+        if (e == null) {
+            throw new IllegalArgumentException("Element cannot be null.");
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (true) {
+            Shard<E> shard = shards[random.nextInt(shards.length)];
+            if (shard.lock.tryLock()) {
+                // The size is counted first, so that dequeue never sees an empty queue while
+                // there is an element in a heap.
+                size.incrementAndGet();
+                try {
+                    shard.heap.add(e);
+                    shard.updateTop();
+                } finally {
+                    shard.lock.unlock();
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Dequeues one of the largest elements: the larger of the tops of two random heaps.
+     * Time complexity = O(log n) expected
+     *
+     * @return the element, or null if the queue is empty
+     */
+    @Override
+    public E dequeue() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int attempt = 0; size.get() > 0; attempt++) {
+            Shard<E> shard;
+            if (attempt < MAX_ATTEMPTS) {
+                int i = random.nextInt(shards.length);
+                int j = random.nextInt(shards.length - 1);
+                if (j >= i) {
+                    j++;
+                }
+                shard = larger(shards[i], shards[j]);
+            } else {
+                // The sampled heaps keep being empty or locked, so any non-empty heap is taken.
+                shard = largest();
+            }
+            if (shard == null || !shard.lock.tryLock()) {
+                continue;
+            }
+            try {
+                // Another thread may have emptied the heap since its top was read.
+                if (shard.heap.isEmpty()) {
+                    continue;
+                }
+                E ret = shard.heap.extractMax();
+                shard.updateTop();
+                size.decrementAndGet();
+                return ret;
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the heap with the larger cached top.
+     *
+     * @param a the first heap
+     * @param b the second heap
+     * @return the heap with the larger top, or null if both are empty
+     */
+    private Shard<E> larger(Shard<E> a, Shard<E> b) {
+        E aTop = a.top;
+        E bTop = b.top;
+        if (aTop == null) {
+            return bTop == null ? null : b;
+        }
+        return bTop == null || aTop.compareTo(bTop) >= 0 ? a : b;
+    }
+
+    /**
+     * Gets the heap with the largest cached top of all heaps.
+     * Time complexity = O(c * p)
+     *
+     * @return the heap with the largest top, or null if all of them are empty
+     */
+    private Shard<E> largest() {
+        Shard<E> ret = null;
+        E max = null;
+        for (Shard<E> shard : shards) {
+            E top = shard.top;
+            if (top != null && (max == null || top.compareTo(max) > 0)) {
+                ret = shard;
+                max = top;
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Gets the front element from the queue, which is the largest of the cached tops. Other
+     * threads may change the queue at any time, so it is only a snapshot.
+     * Time complexity = O(c * p)
+     *
+     * @return the front element from the queue, or null if the queue is empty
+     */
+    @Override
+    public E getFront() {
+        E max = null;
+        for (Shard<E> shard : shards) {
+            E top = shard.top;
+            if (top != null && (max == null || top.compareTo(max) > 0)) {
+                max = top;
+            }
+        }
+        return max;
+    }
+}
@@ -0,0 +1,207 @@
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * This class compares MultiQueue with a strict priority queue behind one lock:
+ * <ul>
+ *   <li>throughput: every thread alternates enqueue and dequeue on a queue that starts with n
+ *   elements, for 1, 2, 4, ... up to the given number of threads</li>
+ *   <li>rank error: n distinct elements are enqueued and then all dequeued by one thread, and
+ *   the rank of every dequeued element among the remaining ones is recorded; the strict queue
+ *   always has a rank error of 0</li>
+ * </ul>
+ * Usage: MultiQueueBenchmark [threads] [n] [c], with the number of processors, 10^6 and 2 by
+ * default.
+ */
+public class MultiQueueBenchmark {
+    // The number of operations of every thread in a throughput run.
+    private static final int OPERATIONS = 1_000_000;
+
+    private MultiQueueBenchmark(){}
+
+    /**
+     * A strict priority queue whose operations all take one lock.
+     *
+     * @param <E> the generic type
+     */
+    private static class LockedQueue<E extends Comparable<E>> implements Queue<E> {
+        private final PriorityQueue<E> queue = new PriorityQueue<>();
+
+        /**
+         * Gets the size of the queue.
+         *
+         * @return the size of the queue
+         */
+        @Override
+        public synchronized int getSize() {
+            return queue.getSize();
+        }
+
+        /**
+         * Returns if the queue is empty.
+         *
+         * @return true if the queue is empty, false otherwise
+         */
+        @Override
+        public synchronized boolean isEmpty() {
+            return queue.isEmpty();
+        }
+
+        /**
+         * Enqueues an element into the queue.
+         *
+         * @param e the element to be enqueued
+         */
+        @Override
+        public synchronized void enqueue(E e) {
+            queue.enqueue(e);
+        }
+
+        /**
+         * Dequeues the largest element from the queue.
+         *
+         * @return the element, or null if the queue is empty
+         */
+        @Override
+        public synchronized E dequeue() {
+            return queue.isEmpty() ? null : queue.dequeue();
+        }
+
+        /**
+         * Gets the front element from the queue.
+         *
+         * @return the front element, or null if the queue is empty
+         */
+        @Override
+        public synchronized E getFront() {
+            return queue.isEmpty() ? null : queue.getFront();
+        }
+    }
+
+    /**
+     * Measures the throughput of a queue with a number of threads.
+     *
+     * @param queue   the queue, which already holds the initial elements
+     * @param threads the number of threads
+     * @return the number of operations per second
+     * @throws InterruptedException if the current thread is interrupted
+     */
+    private static double throughput(Queue<Integer> queue, int threads)
+            throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < OPERATIONS; i += 2) {
+                    queue.enqueue(random.nextInt());
+                    queue.dequeue();
+                }
+            });
+            workers[t].start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long nanos = System.nanoTime() - begin;
+        return (double) OPERATIONS * threads * 1e9 / nanos;
+    }
+
+    /**
+     * Fills a queue with random elements.
+     *
+     * @param queue the queue
+     * @param n     the number of elements
+     * @return the queue
+     */
+    private static Queue<Integer> fill(Queue<Integer> queue, int n) {
+        Random random = new Random(n);
+        for (int i = 0; i < n; i++) {
+            queue.enqueue(random.nextInt());
+        }
+        return queue;
+    }
+
+    /**
+     * Measures the rank error of a queue and prints it. The elements are 0 to n - 1, and a
+     * Fenwick tree counts how many of the remaining elements are larger than a dequeued one.
+     *
+     * @param name  the name of the queue
+     * @param queue an empty queue
+     * @param n     the number of elements
+     */
+    private static void rankError(String name, Queue<Integer> queue, int n) {
+        int[] elements = new int[n];
+        for (int i = 0; i < n; i++) {
+            elements[i] = i;
+        }
+        Random random = new Random(n);
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int t = elements[i];
+            elements[i] = elements[j];
+            elements[j] = t;
+        }
+
+        // tree is a Fenwick tree over the elements that are still in the queue.
+        int[] tree = new int[n + 1];
+        for (int e : elements) {
+            queue.enqueue(e);
+            for (int i = e + 1; i <= n; i += i & -i) {
+                tree[i]++;
+            }
+        }
+        long total = 0;
+        long max = 0;
+        for (int remaining = n; remaining > 0; remaining--) {
+            int e = queue.dequeue();
+            // The number of remaining elements that are at most e, including e itself.
+            int atMost = 0;
+            for (int i = e + 1; i > 0; i -= i & -i) {
+                atMost += tree[i];
+            }
+            long rank = remaining - atMost;
+            total += rank;
+            max = Math.max(max, rank);
+            for (int i = e + 1; i <= n; i += i & -i) {
+                tree[i]--;
+            }
+        }
+        System.out.printf("%-12s rank error: mean %.2f, max %d%n", name, (double) total / n, max);
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args the largest number of threads, the number of elements, and c
+     * @throws InterruptedException if the current thread is interrupted
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0])
+                : Runtime.getRuntime().availableProcessors();
+        int n = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+        int c = args.length > 2 ? Integer.parseInt(args[2]) : 2;
+
+        // Warm-up runs, so that the first measurements are not taken by the interpreter.
+        throughput(fill(new LockedQueue<>(), n), 1);
+        throughput(fill(new MultiQueue<>(1, c), n), 1);
+
+        System.out.printf("%-8s %16s %16s%n", "threads", "locked ops/s", "multiqueue ops/s");
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            double locked = throughput(fill(new LockedQueue<>(), n), threads);
+            double multi = throughput(fill(new MultiQueue<>(threads, c), n), threads);
+            System.out.printf("%-8d %16.0f %16.0f%n", threads, locked, multi);
+        }
+
+        rankError("locked", new LockedQueue<>(), n);
+        rankError("multiqueue", new MultiQueue<>(maxThreads, c), n);
+    }
+}
@@ -0,0 +1,12 @@
+/**
+ * An interface for visiting the components of a union find.
+ */
+public interface ComponentVisitor {
+    /**
+     * Visits one component.
+     *
+     * @param root the root element of the component
+     * @param size the number of elements of the component
+     */
+    void visit(int root, int size);
+}
@@ -0,0 +1,139 @@
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * This class is a thread-safe implementation of the UF interface that takes no locks. The parent
+ * array is an AtomicIntegerArray, and every change to it is a compare-and-set (CAS), so many
+ * threads can call union and isConnected at the same time.
+ * <p>
+ * Instead of a rank, which could not be updated together with the parent in one CAS, every
+ * element has a fixed pseudo-random priority, and a root is always linked under the root with
+ * the higher priority (randomized linking). This keeps the expected height of the trees
+ * logarithmic. Paths are compressed by path halving, where a failed CAS is simply ignored since
+ * another thread has already changed that link.
+ */
+public class ConcurrentUnionFind implements UF{
+    private final AtomicIntegerArray parent;
+
+    /**
+     * Constructor.
+     *
+     * @param size the size of the disjoint sets.
+     */
+    public ConcurrentUnionFind(int size){
+        parent = new AtomicIntegerArray(size);
+
+        for (int i = 0; i < size; i++) {
+            parent.set(i, i);
+        }
+    }
+
+    /**
+     * Gets the size of the disjoint sets.
+     *
+     * @return the size of the set
+     */
+    @Override
+    public int getSize(){
+        return parent.length();
+    }
+
+    /**
+     * Gets the priority of an element, which is a fixed permutation of the element ids.
+     *
+     * @param p the element
+     * @return the priority of the element
+     */
+    private static int priority(int p){
+        int h = p * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Checks if root p should be linked under root q.
+     *
+     * @param p the first root
+     * @param q the second root
+     * @return true if p has the lower priority, false otherwise
+     */
+    private static boolean lower(int p, int q){
+        int pPriority = priority(p);
+        int qPriority = priority(q);
+        return pPriority < qPriority || (pPriority == qPriority && p < q);
+    }
+
+    /**
+     * Finds the root of the set that element p belongs to. The root may stop being a root right
+     * after it is returned if another thread is calling union.
+     * Time complexity = O(log n) expected
+     *
+     * @param p the element
+     * @return the id of the set that element p belongs to
+     */
+    public int find(int p){
+        if(p < 0 || p > parent.length() - 1){
+            throw new IllegalArgumentException("Find failed. Invalid p.");
+        }
+        int pParent = parent.get(p);
+        while(pParent != p){
+            int grandparent = parent.get(pParent);
+            // Path halving. If the CAS fails, another thread has already relinked p, which is
+            // fine since links only ever move closer to the root.
+            parent.compareAndSet(p, pParent, grandparent);
+            p = grandparent;
+            pParent = parent.get(p);
+        }
+        return p;
+    }
+
+    /**
+     * Examines if two elements are connected. The answer is correct at some moment during the
+     * call.
+     *
+     * @param p the first element
+     * @param q the second element
+     * @return true if two elements are connected, false otherwise
+     */
+    @Override
+    public boolean isConnected(int p, int q) {
+        while(true){
+            int pRoot = find(p);
+            int qRoot = find(q);
+            if(pRoot == qRoot){
+                return true;
+            }
+            // If pRoot is still a root, the two sets were different at the moment it was read.
+            // Otherwise a union has happened in the meantime, so try again.
+            if(parent.get(pRoot) == pRoot){
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Unions the sets that the two elements belong to.
+     *
+     * @param p the first element
+     * @param q the second element
+     */
+    @Override
+    public void union(int p, int q) {
+        while(true){
+            int pRoot = find(p);
+            int qRoot = find(q);
+            if(pRoot == qRoot){
+                return;
+            }
+            // Links the root with the lower priority. The CAS fails if that root has been linked
+            // by another thread in the meantime, in which case the roots are found again.
+            if(lower(pRoot, qRoot)){
+                if(parent.compareAndSet(pRoot, pRoot, qRoot)){
+                    return;
+                }
+            }else{
+                if(parent.compareAndSet(qRoot, qRoot, pRoot)){
+                    return;
+                }
+            }
+        }
+    }
+}
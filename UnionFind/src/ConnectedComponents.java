@@ -0,0 +1,236 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * This class computes the connected components of a graph stored in a binary edge file. The
+ * file is memory-mapped in chunks, and the chunks are processed by a pool of threads that all
+ * call union on one ConcurrentUnionFind.
+ * <p>
+ * An edge file starts with the number of vertices as an int, followed by one pair of ints per
+ * edge, all in big-endian order.
+ */
+public class ConnectedComponents{
+    private static final int HEADER_SIZE = 4;
+    private static final int EDGE_SIZE = 8;
+    // The maximum number of edges of one chunk, so that a chunk fits into one mapping.
+    private static final long MAX_CHUNK_EDGES = 1L << 26;
+
+    private ConnectedComponents(){}
+
+    /**
+     * The result of a run: the component of every vertex, the size of every component, and how
+     * long the unions took.
+     */
+    public static class Result{
+        // labels[v] is the component of vertex v, numbered from 0 in order of first appearance.
+        public final int[] labels;
+        // sizes[c] is the number of vertices of component c.
+        public final int[] sizes;
+        public final long edges;
+        public final long nanos;
+
+        /**
+         * Constructor.
+         *
+         * @param labels the component of every vertex
+         * @param sizes  the size of every component
+         * @param edges  the number of edges processed
+         * @param nanos  the time spent processing the edges, in nanoseconds
+         */
+        public Result(int[] labels, int[] sizes, long edges, long nanos){
+            this.labels = labels;
+            this.sizes = sizes;
+            this.edges = edges;
+            this.nanos = nanos;
+        }
+
+        /**
+         * Gets the number of components.
+         *
+         * @return the number of components
+         */
+        public int getCount(){
+            return sizes.length;
+        }
+
+        /**
+         * Gets the number of edges processed per second.
+         *
+         * @return the throughput in edges per second
+         */
+        public double edgesPerSecond(){
+            return nanos == 0 ? 0 : edges * 1e9 / nanos;
+        }
+    }
+
+    /**
+     * Computes the connected components of the graph in an edge file.
+     *
+     * @param path    the edge file
+     * @param threads the number of threads
+     * @return the result
+     * @throws IOException if the file cannot be read or is malformed
+     */
+    public static Result run(Path path, int threads) throws IOException{
+        if(threads <= 0){
+            throw new IllegalArgumentException("The number of threads must be positive.");
+        }
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)){
+            long fileSize = channel.size();
+            if(fileSize < HEADER_SIZE || (fileSize - HEADER_SIZE) % EDGE_SIZE != 0){
+                throw new IOException(path + " is not an edge file.");
+            }
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            channel.read(header, 0);
+            int vertices = header.getInt(0);
+            long edges = (fileSize - HEADER_SIZE) / EDGE_SIZE;
+
+            // A few chunks per thread keep the threads busy even if some chunks are slower.
+            long chunkEdges = Math.max(1, Math.min(MAX_CHUNK_EDGES, edges / (threads * 4L) + 1));
+            ConcurrentUnionFind uf = new ConcurrentUnionFind(vertices);
+            ExecutorService pool = Executors.newFixedThreadPool(threads);
+            long start = System.nanoTime();
+            try{
+                List<Future<?>> futures = new ArrayList<>();
+                for(long first = 0; first < edges; first += chunkEdges){
+                    long count = Math.min(chunkEdges, edges - first);
+                    MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY,
+                            HEADER_SIZE + first * EDGE_SIZE, count * EDGE_SIZE);
+                    futures.add(pool.submit(() -> {
+                        while(chunk.hasRemaining()){
+                            uf.union(chunk.getInt(), chunk.getInt());
+                        }
+                    }));
+                }
+                for(Future<?> future : futures){
+                    future.get();
+                }
+            }catch(InterruptedException e){
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted.", e);
+            }catch(ExecutionException e){
+                throw new IOException("Failed to process an edge.", e.getCause());
+            }finally{
+                pool.shutdown();
+            }
+            long nanos = System.nanoTime() - start;
+
+            return label(uf, edges, nanos);
+        }
+    }
+
+    /**
+     * Numbers the components and counts their vertices.
+     *
+     * @param uf    the union find that holds the components
+     * @param edges the number of edges processed
+     * @param nanos the time spent processing the edges
+     * @return the result
+     */
+    private static Result label(ConcurrentUnionFind uf, long edges, long nanos){
+        int n = uf.getSize();
+        int[] labels = new int[n];
+        // rootLabel[r] is the label of root r plus one, or 0 if r has no label yet.
+        int[] rootLabel = new int[n];
+        int[] sizes = new int[n];
+        int count = 0;
+        for(int v = 0; v < n; v++){
+            int root = uf.find(v);
+            if(rootLabel[root] == 0){
+                rootLabel[root] = ++count;
+            }
+            labels[v] = rootLabel[root] - 1;
+            sizes[labels[v]]++;
+        }
+        int[] trimmed = new int[count];
+        System.arraycopy(sizes, 0, trimmed, 0, count);
+        return new Result(labels, trimmed, edges, nanos);
+    }
+
+    /**
+     * Writes a random graph to an edge file. Both ends of every edge are chosen uniformly.
+     *
+     * @param path     the edge file
+     * @param vertices the number of vertices
+     * @param edges    the number of edges
+     * @param seed     the seed of the random generator
+     * @throws IOException if the file cannot be written
+     */
+    public static void generate(Path path, int vertices, long edges, long seed) throws IOException{
+        if(vertices <= 0 || edges < 0){
+            throw new IllegalArgumentException("Invalid number of vertices or edges.");
+        }
+        Random random = new Random(seed);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16);
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)){
+            buffer.putInt(vertices);
+            for(long i = 0; i < edges; i++){
+                if(buffer.remaining() < EDGE_SIZE){
+                    write(channel, buffer);
+                }
+                buffer.putInt(random.nextInt(vertices));
+                buffer.putInt(random.nextInt(vertices));
+            }
+            write(channel, buffer);
+        }
+    }
+
+    /**
+     * Writes the content of a buffer to a channel and clears the buffer.
+     *
+     * @param channel the channel
+     * @param buffer  the buffer
+     * @throws IOException if the channel cannot be written
+     */
+    private static void write(FileChannel channel, ByteBuffer buffer) throws IOException{
+        buffer.flip();
+        while(buffer.hasRemaining()){
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Generates a random graph if it is asked to, and computes its connected components.
+     * Usage: ConnectedComponents file [threads] [vertices edges]
+     * If vertices and edges are given, a random graph is written to the file first.
+     *
+     * @param args the command line arguments
+     * @throws IOException if the file cannot be read or written
+     */
+    public static void main(String[] args) throws IOException{
+        if(args.length < 1){
+            System.out.println("Usage: ConnectedComponents file [threads] [vertices edges]");
+            return;
+        }
+        Path path = Paths.get(args[0]);
+        int threads = args.length > 1 ? Integer.parseInt(args[1])
+                : Runtime.getRuntime().availableProcessors();
+        if(args.length > 3){
+            generate(path, Integer.parseInt(args[2]), Long.parseLong(args[3]), 42);
+        }
+
+        Result result = run(path, threads);
+        int largest = 0;
+        for(int size : result.sizes){
+            largest = Math.max(largest, size);
+        }
+        System.out.printf("%d edges, %d threads: %.3f s, %.0f edges/s%n", result.edges, threads,
+                result.nanos / 1e9, result.edgesPerSecond());
+        System.out.printf("%d components, the largest has %d vertices%n", result.getCount(),
+                largest);
+    }
+}
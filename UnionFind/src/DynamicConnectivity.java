@@ -0,0 +1,234 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * This class answers connectivity queries over a timeline of edge insertions and deletions
+ * offline, using a RollbackUnionFind.
+ * <p>
+ * The operations are recorded first. Every edge is then alive during an interval of queries,
+ * and the interval is stored in the O(log Q) nodes of a segment tree over the Q queries that
+ * cover it. A depth-first walk over the tree adds the edges of a node when it enters the node
+ * and rolls them back when it leaves, so at every leaf the union find holds exactly the edges
+ * alive at that query.
+ * Time complexity = O((E log Q + Q) log n), where E is the number of insertions.
+ */
+public class DynamicConnectivity{
+    private final int vertices;
+    // The pending insertions of every edge, keyed by its two ends, hold the query times at
+    // which they happened. A list allows the same edge to be inserted more than once.
+    private final HashMap<Long, ArrayDeque<Integer>> open = new HashMap<>();
+    // The closed intervals: edge (from[i], to[i]) is alive for the queries in [start[i], end[i]).
+    private int[] from = new int[16];
+    private int[] to = new int[16];
+    private int[] start = new int[16];
+    private int[] end = new int[16];
+    private int edges;
+    // The queries in the order they were asked.
+    private int[] queryP = new int[16];
+    private int[] queryQ = new int[16];
+    private int queries;
+
+    /**
+     * Constructor.
+     *
+     * @param vertices the number of vertices of the graph
+     */
+    public DynamicConnectivity(int vertices){
+        this.vertices = vertices;
+    }
+
+    /**
+     * Creates the key of an undirected edge.
+     *
+     * @param p the first end
+     * @param q the second end
+     * @return the key of the edge
+     */
+    private long key(int p, int q){
+        if(p < 0 || p >= vertices || q < 0 || q >= vertices){
+            throw new IllegalArgumentException("Invalid vertex.");
+        }
+        return ((long) Math.min(p, q) << 32) | Math.max(p, q);
+    }
+
+    /**
+     * Records the insertion of an edge.
+     *
+     * @param p the first end of the edge
+     * @param q the second end of the edge
+     */
+    public void addEdge(int p, int q){
+        open.computeIfAbsent(key(p, q), k -> new ArrayDeque<>()).push(queries);
+    }
+
+    /**
+     * Records the deletion of an edge.
+     *
+     * @param p the first end of the edge
+     * @param q the second end of the edge
+     * @throws IllegalArgumentException if the edge doesn't exist
+     */
+    public void removeEdge(int p, int q){
+        long k = key(p, q);
+        ArrayDeque<Integer> starts = open.get(k);
+        if(starts == null){
+            throw new IllegalArgumentException("Edge " + p + "-" + q + " doesn't exist!");
+        }
+        close(p, q, starts.pop(), queries);
+        if(starts.isEmpty()){
+            open.remove(k);
+        }
+    }
+
+    /**
+     * Records an interval during which an edge is alive.
+     *
+     * @param p  the first end of the edge
+     * @param q  the second end of the edge
+     * @param lo the first query at which the edge is alive
+     * @param hi the first query at which the edge is no longer alive
+     */
+    private void close(int p, int q, int lo, int hi){
+        if(lo == hi){
+            return;
+        }
+        if(edges == from.length){
+            from = Arrays.copyOf(from, edges * 2);
+            to = Arrays.copyOf(to, edges * 2);
+            start = Arrays.copyOf(start, edges * 2);
+            end = Arrays.copyOf(end, edges * 2);
+        }
+        from[edges] = p;
+        to[edges] = q;
+        start[edges] = lo;
+        end[edges] = hi;
+        edges++;
+    }
+
+    /**
+     * Records a query that asks if two vertices are connected after all the operations so far.
+     *
+     * @param p the first vertex
+     * @param q the second vertex
+     * @return the index of the query in the answers of solve()
+     */
+    public int query(int p, int q){
+        key(p, q);
+        if(queries == queryP.length){
+            queryP = Arrays.copyOf(queryP, queries * 2);
+            queryQ = Arrays.copyOf(queryQ, queries * 2);
+        }
+        queryP[queries] = p;
+        queryQ[queries] = q;
+        return queries++;
+    }
+
+    /**
+     * Answers all the recorded queries. The edges that are not deleted yet stay alive until the
+     * last query. The recorded operations are not changed, so more operations can be recorded
+     * and solve can be called again.
+     *
+     * @return answers[i] is the answer to the ith query
+     */
+    public boolean[] solve(){
+        boolean[] answers = new boolean[queries];
+        if(queries == 0){
+            return answers;
+        }
+
+        // The intervals of the edges that are still alive are closed at the last query in
+        // copies of the interval arrays, so that the edges stay open for later operations.
+        int n = edges;
+        for(ArrayDeque<Integer> starts : open.values()){
+            n += starts.size();
+        }
+        int[] f = Arrays.copyOf(from, n);
+        int[] t = Arrays.copyOf(to, n);
+        int[] lo = Arrays.copyOf(start, n);
+        n = edges;
+        for(HashMap.Entry<Long, ArrayDeque<Integer>> entry : open.entrySet()){
+            for(int s : entry.getValue()){
+                f[n] = (int) (entry.getKey() >>> 32);
+                t[n] = (int) (long) entry.getKey();
+                lo[n] = s;
+                n++;
+            }
+        }
+
+        List<List<Integer>> tree = new ArrayList<>();
+        for(int i = 0; i < 4 * queries; i++){
+            tree.add(null);
+        }
+        for(int i = 0; i < n; i++){
+            int hi = i < edges ? end[i] : queries;
+            if(lo[i] < hi){
+                insert(tree, 0, 0, queries, lo[i], hi, i);
+            }
+        }
+        walk(tree, 0, 0, queries, new RollbackUnionFind(vertices), f, t, answers);
+        return answers;
+    }
+
+    /**
+     * Stores an edge in the nodes of the segment tree that cover its interval.
+     *
+     * @param tree the segment tree
+     * @param node the current node, which covers the queries [l, r)
+     * @param l    the first query of the node
+     * @param r    the end of the queries of the node
+     * @param lo   the first query at which the edge is alive
+     * @param hi   the first query at which the edge is no longer alive
+     * @param edge the index of the edge
+     */
+    private void insert(List<List<Integer>> tree, int node, int l, int r, int lo, int hi,
+                        int edge){
+        if(hi <= l || r <= lo){
+            return;
+        }
+        if(lo <= l && r <= hi){
+            if(tree.get(node) == null){
+                tree.set(node, new ArrayList<>());
+            }
+            tree.get(node).add(edge);
+            return;
+        }
+        int mid = l + (r - l) / 2;
+        insert(tree, 2 * node + 1, l, mid, lo, hi, edge);
+        insert(tree, 2 * node + 2, mid, r, lo, hi, edge);
+    }
+
+    /**
+     * Walks the segment tree, adding the edges of every node on the way down and rolling them
+     * back on the way up.
+     *
+     * @param tree    the segment tree
+     * @param node    the current node, which covers the queries [l, r)
+     * @param l       the first query of the node
+     * @param r       the end of the queries of the node
+     * @param uf      the union find
+     * @param f       the first ends of the edges
+     * @param t       the second ends of the edges
+     * @param answers the answers to be filled
+     */
+    private void walk(List<List<Integer>> tree, int node, int l, int r, RollbackUnionFind uf,
+                      int[] f, int[] t, boolean[] answers){
+        int snapshot = uf.snapshot();
+        if(tree.get(node) != null){
+            for(int edge : tree.get(node)){
+                uf.union(f[edge], t[edge]);
+            }
+        }
+
+        if(r - l == 1){
+            answers[l] = uf.isConnected(queryP[l], queryQ[l]);
+        }else{
+            int mid = l + (r - l) / 2;
+            walk(tree, 2 * node + 1, l, mid, uf, f, t, answers);
+            walk(tree, 2 * node + 2, mid, r, uf, f, t, answers);
+        }
+        uf.rollback(snapshot);
+    }
+}
@@ -0,0 +1,306 @@
+/**
+ * This class computes minimum spanning forests and single-linkage clusterings with Kruskal's
+ * algorithm on top of UnionFind5. The edges are given as three parallel primitive arrays, so no
+ * object is created per edge.
+ * <p>
+ * Instead of sorting all the edges first, it uses Filter-Kruskal: the edges are partitioned
+ * around a pivot weight, the light half is processed first, and then every heavy edge whose ends
+ * are already connected is filtered out before the heavy half is processed. Small ranges are
+ * processed lazily with a binary min-heap, which is built in O(r) and only popped as far as
+ * needed. The algorithm stops as soon as k clusters remain, so the heaviest edges are usually
+ * never looked at.
+ */
+public class Kruskal{
+    // Ranges with at most this many edges are processed with the heap.
+    private static final int HEAP_THRESHOLD = 1 << 12;
+
+    private final int[] from;
+    private final int[] to;
+    private final double[] weight;
+    private final int k;
+    private final UnionFind5 uf;
+
+    private final int[] forestFrom;
+    private final int[] forestTo;
+    private final double[] forestWeight;
+    private int forestSize;
+
+    /**
+     * A minimum spanning forest, stored as three parallel arrays of its edges.
+     */
+    public static class Forest{
+        public final int[] from;
+        public final int[] to;
+        public final double[] weight;
+        // The number of trees of the forest, which is the number of clusters.
+        public final int components;
+
+        /**
+         * Constructor.
+         *
+         * @param from       the first ends of the edges
+         * @param to         the second ends of the edges
+         * @param weight     the weights of the edges
+         * @param components the number of trees
+         */
+        public Forest(int[] from, int[] to, double[] weight, int components){
+            this.from = from;
+            this.to = to;
+            this.weight = weight;
+            this.components = components;
+        }
+
+        /**
+         * Gets the number of edges of the forest.
+         *
+         * @return the number of edges
+         */
+        public int getSize(){
+            return from.length;
+        }
+
+        /**
+         * Gets the total weight of the forest.
+         *
+         * @return the total weight
+         */
+        public double totalWeight(){
+            double total = 0;
+            for(double w : weight){
+                total += w;
+            }
+            return total;
+        }
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param vertices the number of vertices
+     * @param from     the first ends of the edges
+     * @param to       the second ends of the edges
+     * @param weight   the weights of the edges
+     * @param k        the number of clusters at which to stop
+     */
+    private Kruskal(int vertices, int[] from, int[] to, double[] weight, int k){
+        this.from = from;
+        this.to = to;
+        this.weight = weight;
+        this.k = k;
+        this.uf = new UnionFind5(vertices);
+        int n = Math.max(0, vertices - k);
+        forestFrom = new int[n];
+        forestTo = new int[n];
+        forestWeight = new double[n];
+    }
+
+    /**
+     * Computes the minimum spanning forest of a graph. The edge arrays are reordered in place.
+     *
+     * @param vertices the number of vertices
+     * @param from     the first ends of the edges
+     * @param to       the second ends of the edges
+     * @param weight   the weights of the edges
+     * @return the minimum spanning forest
+     * @throws IllegalArgumentException if the edge arrays differ in length, or a weight is NaN
+     */
+    public static Forest minimumSpanningForest(int vertices, int[] from, int[] to,
+                                               double[] weight){
+        return cluster(vertices, from, to, weight, 1);
+    }
+
+    /**
+     * Computes a single-linkage clustering of a graph into k clusters, which is the minimum
+     * spanning forest with its k - 1 heaviest edges removed. Kruskal's algorithm simply stops
+     * when k trees remain. If the graph has more than k connected components, the result has
+     * as many trees as components. The edge arrays are reordered in place.
+     *
+     * @param vertices the number of vertices
+     * @param from     the first ends of the edges
+     * @param to       the second ends of the edges
+     * @param weight   the weights of the edges
+     * @param k        the number of clusters
+     * @return the forest whose trees are the clusters
+     * @throws IllegalArgumentException if the edge arrays differ in length, k is not positive,
+     *                                  or a weight is NaN
+     */
+    public static Forest cluster(int vertices, int[] from, int[] to, double[] weight, int k){
+        if(from.length != to.length || from.length != weight.length){
+            throw new IllegalArgumentException("The edge arrays must have the same length.");
+        }
+        if(k < 1){
+            throw new IllegalArgumentException("k must be positive.");
+        }
+        // NaN is neither lighter nor heavier than any weight, so the partition and the heap
+        // would not order the edges, and the partition might never make progress.
+        for(int i = 0; i < weight.length; i++){
+            if(Double.isNaN(weight[i])){
+                throw new IllegalArgumentException("The weight of edge " + i + " is NaN.");
+            }
+        }
+        Kruskal kruskal = new Kruskal(vertices, from, to, weight, k);
+        kruskal.filterKruskal(0, from.length);
+
+        int n = kruskal.forestSize;
+        int[] f = new int[n];
+        int[] t = new int[n];
+        double[] w = new double[n];
+        System.arraycopy(kruskal.forestFrom, 0, f, 0, n);
+        System.arraycopy(kruskal.forestTo, 0, t, 0, n);
+        System.arraycopy(kruskal.forestWeight, 0, w, 0, n);
+        return new Forest(f, t, w, kruskal.uf.count());
+    }
+
+    /**
+     * Checks if the algorithm can stop.
+     *
+     * @return true if k trees remain, false otherwise
+     */
+    private boolean done(){
+        return uf.count() <= k;
+    }
+
+    /**
+     * Processes the edges in [lo, hi) in order of weight.
+     *
+     * @param lo the first edge
+     * @param hi the end of the edges
+     */
+    private void filterKruskal(int lo, int hi){
+        while(!done() && lo < hi){
+            if(hi - lo <= HEAP_THRESHOLD){
+                heapKruskal(lo, hi);
+                return;
+            }
+
+            double pivot = medianOfThree(lo, lo + (hi - lo) / 2, hi - 1);
+            int mid = partition(lo, hi, pivot);
+            if(mid == hi){
+                // Every weight is at most the pivot, so partitioning cannot make progress.
+                heapKruskal(lo, hi);
+                return;
+            }
+            filterKruskal(lo, mid);
+            // The heavy half is processed in this loop instead of by recursion.
+            lo = mid;
+            hi = filter(mid, hi);
+        }
+    }
+
+    /**
+     * Gets the median of the weights of three edges.
+     *
+     * @param a the first edge
+     * @param b the second edge
+     * @param c the third edge
+     * @return the median weight
+     */
+    private double medianOfThree(int a, int b, int c){
+        double x = weight[a];
+        double y = weight[b];
+        double z = weight[c];
+        return Math.max(Math.min(x, y), Math.min(Math.max(x, y), z));
+    }
+
+    /**
+     * Moves the edges with a weight of at most the pivot to the front of [lo, hi).
+     *
+     * @param lo    the first edge
+     * @param hi    the end of the edges
+     * @param pivot the pivot weight
+     * @return the end of the light edges
+     */
+    private int partition(int lo, int hi, double pivot){
+        int mid = lo;
+        for(int i = lo; i < hi; i++){
+            if(weight[i] <= pivot){
+                swap(i, mid++);
+            }
+        }
+        return mid;
+    }
+
+    /**
+     * Removes the edges whose ends are already connected from [lo, hi).
+     *
+     * @param lo the first edge
+     * @param hi the end of the edges
+     * @return the end of the remaining edges
+     */
+    private int filter(int lo, int hi){
+        int end = lo;
+        for(int i = lo; i < hi; i++){
+            if(!uf.isConnected(from[i], to[i])){
+                swap(i, end++);
+            }
+        }
+        return end;
+    }
+
+    /**
+     * Processes the edges in [lo, hi) with a min-heap.
+     *
+     * @param lo the first edge
+     * @param hi the end of the edges
+     */
+    private void heapKruskal(int lo, int hi){
+        int n = hi - lo;
+        for(int i = (n - 2) / 2; i >= 0; i--){
+            siftDown(lo, i, n);
+        }
+        while(n > 0 && !done()){
+            // The lightest edge is moved behind the heap and then processed.
+            swap(lo, lo + n - 1);
+            n--;
+            siftDown(lo, 0, n);
+
+            int e = lo + n;
+            if(!uf.isConnected(from[e], to[e])){
+                uf.union(from[e], to[e]);
+                forestFrom[forestSize] = from[e];
+                forestTo[forestSize] = to[e];
+                forestWeight[forestSize] = weight[e];
+                forestSize++;
+            }
+        }
+    }
+
+    /**
+     * Sifts down an edge of the min-heap stored in [lo, lo + n).
+     *
+     * @param lo the start of the heap
+     * @param i  the index of the edge in the heap
+     * @param n  the size of the heap
+     */
+    private void siftDown(int lo, int i, int n){
+        while(2 * i + 1 < n){
+            int j = 2 * i + 1;
+            if(j + 1 < n && weight[lo + j + 1] < weight[lo + j]){
+                j++;
+            }
+            if(weight[lo + i] <= weight[lo + j]){
+                break;
+            }
+            swap(lo + i, lo + j);
+            i = j;
+        }
+    }
+
+    /**
+     * Swaps two edges.
+     *
+     * @param i the first edge
+     * @param j the second edge
+     */
+    private void swap(int i, int j){
+        int f = from[i];
+        from[i] = from[j];
+        from[j] = f;
+        int t = to[i];
+        to[i] = to[j];
+        to[j] = t;
+        double w = weight[i];
+        weight[i] = weight[j];
+        weight[j] = w;
+    }
+}
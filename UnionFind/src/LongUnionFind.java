@@ -0,0 +1,159 @@
+/**
+ * This class is a version of UnionFind6 whose elements are indexed by long, so it can hold more
+ * than 2^31 elements. The parent and rank arrays are split into chunks of 2^CHUNK_BITS elements,
+ * and a chunk is only allocated when one of its elements is first linked to another element.
+ * Untouched elements cost no memory, so the memory is bounded by the elements actually used.
+ */
+public class LongUnionFind{
+    private static final int CHUNK_BITS = 20;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private final long size;
+    // parent[c][i] holds the parent of element (c << CHUNK_BITS) + i, plus one. Zero means that
+    // the element is its own parent, so a new chunk needs no initialization, and a missing
+    // chunk means that all its elements are roots.
+    private final long[][] parent;
+    // rank[c][i] is an upper bound of the height of the element.
+    private final byte[][] rank;
+
+    /**
+     * Constructor.
+     *
+     * @param size the size of the disjoint sets.
+     */
+    public LongUnionFind(long size){
+        if(size < 0){
+            throw new IllegalArgumentException("Size cannot be negative.");
+        }
+        this.size = size;
+        int chunks = (int) ((size + CHUNK_SIZE - 1) >>> CHUNK_BITS);
+        parent = new long[chunks][];
+        rank = new byte[chunks][];
+    }
+
+    /**
+     * Gets the size of the disjoint sets.
+     *
+     * @return the size of the set
+     */
+    public long getSize(){
+        return size;
+    }
+
+    /**
+     * Gets the parent of an element.
+     *
+     * @param p the element
+     * @return the parent of the element
+     */
+    private long getParent(long p){
+        long[] chunk = parent[(int) (p >>> CHUNK_BITS)];
+        if(chunk == null){
+            return p;
+        }
+        long v = chunk[(int) (p & CHUNK_MASK)];
+        return v == 0 ? p : v - 1;
+    }
+
+    /**
+     * Sets the parent of an element, allocating its chunk if necessary.
+     *
+     * @param p the element
+     * @param v the new parent
+     */
+    private void setParent(long p, long v){
+        int c = (int) (p >>> CHUNK_BITS);
+        if(parent[c] == null){
+            parent[c] = new long[chunkLength(c)];
+            rank[c] = new byte[chunkLength(c)];
+        }
+        parent[c][(int) (p & CHUNK_MASK)] = v + 1;
+    }
+
+    /**
+     * Gets the length of a chunk. The last chunk may be shorter than the others.
+     *
+     * @param c the index of the chunk
+     * @return the length of the chunk
+     */
+    private int chunkLength(int c){
+        return (int) Math.min(CHUNK_SIZE, size - ((long) c << CHUNK_BITS));
+    }
+
+    /**
+     * Gets the rank of a root.
+     *
+     * @param p the root
+     * @return the rank of the root
+     */
+    private int getRank(long p){
+        byte[] chunk = rank[(int) (p >>> CHUNK_BITS)];
+        return chunk == null ? 0 : chunk[(int) (p & CHUNK_MASK)];
+    }
+
+    /**
+     * Finds the parent of the set that element p belongs to, halving the path on the way.
+     * Time complexity = O(log*n) ≈ O(1)
+     *
+     * @param p the element
+     * @return the id of the set that element p belongs to
+     */
+    private long find(long p){
+        if(p < 0 || p > size - 1){
+            throw new IllegalArgumentException("Find failed. Invalid p.");
+        }
+        long pParent = getParent(p);
+        while(pParent != p){
+            long grandparent = getParent(pParent);
+            if(grandparent != pParent){
+                setParent(p, grandparent);
+            }
+            p = grandparent;
+            pParent = getParent(p);
+        }
+        return p;
+    }
+
+    /**
+     * Examines if two elements are connected.
+     * Time complexity = O(log*n) ≈ O(1)
+     *
+     * @param p the first element
+     * @param q the second element
+     * @return true if two elements are connected, false otherwise
+     */
+    public boolean isConnected(long p, long q) {
+        return find(p) == find(q);
+    }
+
+    /**
+     * Unions the sets that the two elements belong to.
+     * Time complexity = O(log*n) ≈ O(1)
+     *
+     * @param p the first element
+     * @param q the second element
+     */
+    public void union(long p, long q) {
+        long pRoot = find(p);
+        long qRoot = find(q);
+
+        if(pRoot == qRoot){
+            return;
+        }
+        // To reduce the height of the tree, make the root with a larger rank the parent of the
+        // other root.
+        int pRank = getRank(pRoot);
+        int qRank = getRank(qRoot);
+        if(pRank < qRank){
+            setParent(pRoot, qRoot);
+        }else if(pRank > qRank){
+            setParent(qRoot, pRoot);
+        }else{
+            setParent(qRoot, pRoot);
+            // The chunk of pRoot exists after this call, so its rank can be updated.
+            setParent(pRoot, pRoot);
+            rank[(int) (pRoot >>> CHUNK_BITS)][(int) (pRoot & CHUNK_MASK)]++;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+import java.util.Arrays;
+
+/**
+ * This class is a version of UnionFind4 that can undo unions. Every union that merges two sets
+ * is recorded in a log, and rollback undoes the unions recorded after a snapshot in reverse
+ * order. Paths are not compressed, since a compression would have to be undone as well, so
+ * union by rank alone keeps the height of the trees O(log n).
+ */
+public class RollbackUnionFind implements UF{
+    private int[] parent;
+    // rank[i] is the height of ith element.
+    private int[] rank;
+    private int count;
+
+    // The log holds two ints per union: the root that was placed under the other root, and 1 if
+    // the rank of the other root was incremented, 0 otherwise.
+    private int[] log;
+    private int logSize;
+
+    /**
+     * Constructor.
+     *
+     * @param size the size of the disjoint sets.
+     */
+    public RollbackUnionFind(int size){
+        parent = new int[size];
+        rank = new int[size];
+        count = size;
+        log = new int[16];
+
+        for (int i = 0; i < size; i++) {
+            parent[i] = i;
+            rank[i] = 1;
+        }
+    }
+
+    /**
+     * Gets the size of the disjoint sets.
+     *
+     * @return the size of the set
+     */
+    @Override
+    public int getSize(){
+        return parent.length;
+    }
+
+    /**
+     * Gets the number of disjoint sets.
+     *
+     * @return the number of sets
+     */
+    public int count(){
+        return count;
+    }
+
+    /**
+     * Finds the parent of the set that element p belongs to.
+     * Time complexity = O(log n)
+     *
+     * @param p the element
+     * @return the id of the set that element p belongs to
+     */
+    private int find(int p){
+        if(p < 0 || p > parent.length - 1){
+            throw new IllegalArgumentException("Find failed. Invalid p.");
+        }
+
+        while(parent[p] != p){
+            p = parent[p];
+        }
+        return p;
+    }
+
+    /**
+     * Examines if two elements are connected.
+     * Time complexity = O(log n)
+     *
+     * @param p the first element
+     * @param q the second element
+     * @return true if two elements are connected, false otherwise
+     */
+    @Override
+    public boolean isConnected(int p, int q) {
+        return find(p) == find(q);
+    }
+
+    /**
+     * Unions the sets that the two elements belong to, and records the change in the log.
+     * Time complexity = O(log n)
+     *
+     * @param p the first element
+     * @param q the second element
+     */
+    @Override
+    public void union(int p, int q) {
+        int pRoot = find(p);
+        int qRoot = find(q);
+
+        if(pRoot == qRoot){
+            return;
+        }
+        // Makes pRoot the root with the larger height.
+        if(rank[pRoot] < rank[qRoot]){
+            int t = pRoot;
+            pRoot = qRoot;
+            qRoot = t;
+        }
+        int incremented = 0;
+        if(rank[pRoot] == rank[qRoot]){
+            rank[pRoot]++;
+            incremented = 1;
+        }
+        parent[qRoot] = pRoot;
+        count--;
+
+        if(logSize + 2 > log.length){
+            log = Arrays.copyOf(log, log.length * 2);
+        }
+        log[logSize++] = qRoot;
+        log[logSize++] = incremented;
+    }
+
+    /**
+     * Takes a snapshot of the current sets.
+     * Time complexity = O(1)
+     *
+     * @return the snapshot, to be passed to rollback
+     */
+    public int snapshot(){
+        return logSize;
+    }
+
+    /**
+     * Undoes all the unions made after the snapshot was taken.
+     * Time complexity = O(k), where k is the number of unions undone.
+     *
+     * @param snapshot the snapshot returned by snapshot()
+     * @throws IllegalArgumentException if the snapshot has already been rolled back past
+     */
+    public void rollback(int snapshot){
+        if(snapshot < 0 || snapshot > logSize || snapshot % 2 != 0){
+            throw new IllegalArgumentException("Rollback failed. Invalid snapshot.");
+        }
+        while(logSize > snapshot){
+            int incremented = log[--logSize];
+            int child = log[--logSize];
+            int root = parent[child];
+            if(incremented == 1){
+                rank[root]--;
+            }
+            parent[child] = child;
+            count++;
+        }
+    }
+}
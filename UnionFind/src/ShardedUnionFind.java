@@ -0,0 +1,403 @@
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * This class is a union find whose elements are split across shards, as if every shard lived on
+ * a different machine. Shard s owns the elements in [s * width, (s + 1) * width) and keeps them
+ * in its own UnionFind5. Every shard runs on its own thread and is only reached through its
+ * inbox, a BlockingQueue of messages, so no shard ever reads another shard's state.
+ * <p>
+ * An edge inside one shard is buffered and sent to the shard in batches, and the shard unions it
+ * independently of the others. An edge between two shards is kept by the coordinator until the
+ * next merge round. A merge round asks every shard for the local roots of the ends of the cross
+ * edges, numbers the distinct (shard, local root) pairs, and unions the cross edges in a small
+ * UnionFind5 over those numbers. The result is the root-mapping table, which maps every local
+ * root that has a cross edge to a global label. Only the cross edges that merged two sets in the
+ * small union find are kept for the next round, so there are never more of them than local roots
+ * with cross edges.
+ * <p>
+ * isConnected runs a merge round if there are new edges, asks the shards for the two local
+ * roots, and compares them, or their labels in the table if they differ. This class is meant to
+ * be used by one thread; the shards do the work in parallel. close() stops the shard threads.
+ */
+public class ShardedUnionFind implements UF, Closeable{
+    // The number of local edges that are sent to a shard in one message.
+    private static final int BATCH = 1 << 12;
+    private static final Message STOP = new Message(null, null, 0, null, null);
+
+    private final int size;
+    private final int width;
+    private final Shard[] shards;
+
+    // The local edges of every shard that have not been sent yet, as local indexes.
+    private final int[][] pendingP;
+    private final int[][] pendingQ;
+    private final int[] pendingSize;
+
+    // The cross edges, as global elements: the ones kept by the last merge round, followed by
+    // the new ones.
+    private int[] crossP = new int[16];
+    private int[] crossQ = new int[16];
+    private int crossSize;
+    // The root-mapping table: the key of (shard, local root) maps to the global label.
+    private HashMap<Long, Integer> table = new HashMap<>();
+    // Whether an edge has been added since the last merge round.
+    private boolean dirty;
+    private int rounds;
+
+    /**
+     * A message in the inbox of a shard: either a batch of unions, or a request for the local
+     * roots of some elements, which is answered through the reply.
+     */
+    private static class Message{
+        public final int[] ps;
+        public final int[] qs;
+        public final int n;
+        public final int[] finds;
+        public final CompletableFuture<int[]> reply;
+
+        /**
+         * Constructor.
+         *
+         * @param ps    the first elements of the unions
+         * @param qs    the second elements of the unions
+         * @param n     the number of unions
+         * @param finds the elements whose roots are requested
+         * @param reply receives the roots
+         */
+        public Message(int[] ps, int[] qs, int n, int[] finds, CompletableFuture<int[]> reply){
+            this.ps = ps;
+            this.qs = qs;
+            this.n = n;
+            this.finds = finds;
+            this.reply = reply;
+        }
+    }
+
+    /**
+     * A shard, which handles the messages of its inbox in order on its own thread.
+     */
+    private static class Shard extends Thread{
+        public final BlockingQueue<Message> inbox = new LinkedBlockingQueue<>();
+        private final UnionFind5 uf;
+
+        /**
+         * Constructor.
+         *
+         * @param index the index of the shard
+         * @param size  the number of elements of the shard
+         */
+        public Shard(int index, int size){
+            super("shard-" + index);
+            setDaemon(true);
+            uf = new UnionFind5(size);
+        }
+
+        /**
+         * Handles the messages until it is stopped.
+         */
+        @Override
+        public void run(){
+            try{
+                while(true){
+                    Message message = inbox.take();
+                    if(message == STOP){
+                        return;
+                    }
+                    if(message.ps != null){
+                        for(int i = 0; i < message.n; i++){
+                            uf.union(message.ps[i], message.qs[i]);
+                        }
+                    }else{
+                        int[] roots = new int[message.finds.length];
+                        for(int i = 0; i < roots.length; i++){
+                            roots[i] = uf.find(message.finds[i]);
+                        }
+                        message.reply.complete(roots);
+                    }
+                }
+            }catch(InterruptedException e){
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param size   the size of the disjoint sets.
+     * @param shards the number of shards
+     */
+    public ShardedUnionFind(int size, int shards){
+        if(shards <= 0){
+            throw new IllegalArgumentException("The number of shards must be positive.");
+        }
+        this.size = size;
+        width = Math.max(1, (int) ((size + (long) shards - 1) / shards));
+        int n = (size + width - 1) / width;
+        this.shards = new Shard[n];
+        pendingP = new int[n][BATCH];
+        pendingQ = new int[n][BATCH];
+        pendingSize = new int[n];
+
+        for (int s = 0; s < n; s++) {
+            this.shards[s] = new Shard(s, Math.min(width, size - s * width));
+            this.shards[s].start();
+        }
+    }
+
+    /**
+     * Gets the size of the disjoint sets.
+     *
+     * @return the size of the set
+     */
+    @Override
+    public int getSize(){
+        return size;
+    }
+
+    /**
+     * Gets the number of merge rounds run so far.
+     *
+     * @return the number of rounds
+     */
+    public int getRounds(){
+        return rounds;
+    }
+
+    /**
+     * Gets the number of entries of the root-mapping table.
+     *
+     * @return the number of entries
+     */
+    public int getTableSize(){
+        return table.size();
+    }
+
+    /**
+     * Checks that an element exists.
+     *
+     * @param p the element
+     */
+    private void check(int p){
+        if(p < 0 || p > size - 1){
+            throw new IllegalArgumentException("Find failed. Invalid p.");
+        }
+    }
+
+    /**
+     * Creates the key of a local root in the root-mapping table.
+     *
+     * @param shard the shard
+     * @param root  the local root
+     * @return the key
+     */
+    private static long key(int shard, int root){
+        return ((long) shard << 32) | root;
+    }
+
+    /**
+     * Unions the sets that the two elements belong to. The edge is buffered, and it is visible
+     * to isConnected after the next merge round, which isConnected runs itself.
+     * Time complexity = O(1) amortized
+     *
+     * @param p the first element
+     * @param q the second element
+     */
+    @Override
+    public void union(int p, int q){
+        check(p);
+        check(q);
+        int s = p / width;
+        if(s == q / width){
+            int i = pendingSize[s]++;
+            pendingP[s][i] = p - s * width;
+            pendingQ[s][i] = q - s * width;
+            if(pendingSize[s] == BATCH){
+                flush(s);
+            }
+        }else{
+            if(crossSize == crossP.length){
+                crossP = Arrays.copyOf(crossP, crossSize * 2);
+                crossQ = Arrays.copyOf(crossQ, crossSize * 2);
+            }
+            crossP[crossSize] = p;
+            crossQ[crossSize] = q;
+            crossSize++;
+        }
+        dirty = true;
+    }
+
+    /**
+     * Sends the buffered local edges of a shard to the shard.
+     *
+     * @param s the shard
+     */
+    private void flush(int s){
+        if(pendingSize[s] == 0){
+            return;
+        }
+        // The arrays are handed over to the shard, so new ones are needed.
+        shards[s].inbox.add(new Message(pendingP[s], pendingQ[s], pendingSize[s], null, null));
+        pendingP[s] = new int[BATCH];
+        pendingQ[s] = new int[BATCH];
+        pendingSize[s] = 0;
+    }
+
+    /**
+     * Asks a shard for the local roots of some elements. The answer comes after all the unions
+     * sent to the shard before.
+     *
+     * @param s      the shard
+     * @param locals the local indexes of the elements
+     * @return the future local roots
+     */
+    private CompletableFuture<int[]> request(int s, int[] locals){
+        CompletableFuture<int[]> reply = new CompletableFuture<>();
+        shards[s].inbox.add(new Message(null, null, 0, locals, reply));
+        return reply;
+    }
+
+    /**
+     * Runs a merge round: sends all the buffered local edges, and rebuilds the root-mapping
+     * table from the cross edges.
+     * Time complexity = O(c), where c is the number of cross edges, plus the time the shards
+     * need for their pending unions
+     */
+    public void merge(){
+        if(!dirty){
+            return;
+        }
+        for(int s = 0; s < shards.length; s++){
+            flush(s);
+        }
+
+        // Asks every shard for the roots of the ends of the cross edges that it owns, all
+        // shards at the same time. The end e is at position pos[e] of the request of its shard.
+        int[] pos = new int[2 * crossSize];
+        int[] counts = new int[shards.length];
+        for(int e = 0; e < pos.length; e++){
+            int s = end(e) / width;
+            pos[e] = counts[s]++;
+        }
+        int[][] locals = new int[shards.length][];
+        for(int s = 0; s < shards.length; s++){
+            locals[s] = new int[counts[s]];
+        }
+        for(int e = 0; e < pos.length; e++){
+            int s = end(e) / width;
+            locals[s][pos[e]] = end(e) - s * width;
+        }
+        List<CompletableFuture<int[]>> replies = new ArrayList<>();
+        for(int s = 0; s < shards.length; s++){
+            replies.add(counts[s] == 0 ? null : request(s, locals[s]));
+        }
+        int[][] roots = new int[shards.length][];
+        for(int s = 0; s < shards.length; s++){
+            roots[s] = replies.get(s) == null ? null : replies.get(s).join();
+        }
+
+        // Numbers the distinct local roots and unions the cross edges over those numbers.
+        HashMap<Long, Integer> ids = new HashMap<>();
+        int[] endIds = new int[pos.length];
+        for(int e = 0; e < pos.length; e++){
+            int s = end(e) / width;
+            Long k = key(s, roots[s][pos[e]]);
+            Integer id = ids.get(k);
+            if(id == null){
+                id = ids.size();
+                ids.put(k, id);
+            }
+            endIds[e] = id;
+        }
+        UnionFind5 global = new UnionFind5(ids.size());
+        int kept = 0;
+        for(int i = 0; i < crossSize; i++){
+            if(!global.isConnected(endIds[2 * i], endIds[2 * i + 1])){
+                global.union(endIds[2 * i], endIds[2 * i + 1]);
+                crossP[kept] = crossP[i];
+                crossQ[kept] = crossQ[i];
+                kept++;
+            }
+        }
+        crossSize = kept;
+
+        HashMap<Long, Integer> newTable = new HashMap<>(ids.size() * 2);
+        for(HashMap.Entry<Long, Integer> entry : ids.entrySet()){
+            newTable.put(entry.getKey(), global.find(entry.getValue()));
+        }
+        table = newTable;
+        dirty = false;
+        rounds++;
+    }
+
+    /**
+     * Gets an end of a cross edge.
+     *
+     * @param e 2 * i for the first end of the ith edge, 2 * i + 1 for the second end
+     * @return the element
+     */
+    private int end(int e){
+        return e % 2 == 0 ? crossP[e / 2] : crossQ[e / 2];
+    }
+
+    /**
+     * Examines if two elements are connected. Runs a merge round first if there are new edges.
+     * Time complexity = O(1) plus the time of the merge round and of the two local finds
+     *
+     * @param p the first element
+     * @param q the second element
+     * @return true if two elements are connected, false otherwise
+     */
+    @Override
+    public boolean isConnected(int p, int q){
+        check(p);
+        check(q);
+        merge();
+
+        int sp = p / width;
+        int sq = q / width;
+        int pRoot;
+        int qRoot;
+        if(sp == sq){
+            int[] roots = request(sp, new int[]{p - sp * width, q - sq * width}).join();
+            pRoot = roots[0];
+            qRoot = roots[1];
+            if(pRoot == qRoot){
+                return true;
+            }
+        }else{
+            CompletableFuture<int[]> pReply = request(sp, new int[]{p - sp * width});
+            CompletableFuture<int[]> qReply = request(sq, new int[]{q - sq * width});
+            pRoot = pReply.join()[0];
+            qRoot = qReply.join()[0];
+        }
+
+        Integer pLabel = table.get(key(sp, pRoot));
+        return pLabel != null && pLabel.equals(table.get(key(sq, qRoot)));
+    }
+
+    /**
+     * Stops the shard threads. The union find cannot be used afterwards.
+     */
+    @Override
+    public void close(){
+        for(Shard shard : shards){
+            shard.inbox.add(STOP);
+        }
+        for(Shard shard : shards){
+            try{
+                shard.join();
+            }catch(InterruptedException e){
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+}
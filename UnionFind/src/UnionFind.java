@@ -0,0 +1,243 @@
+import java.util.Arrays;
+
+/**
+ * This class is a union find over arbitrary objects, such as strings or UUIDs, instead of ints
+ * from 0 to size - 1. An object gets the next dense id the first time it is seen, through an
+ * internal open-addressing hash index, and the parent and rank arrays grow geometrically, so the
+ * number of elements doesn't have to be known in advance. Internally it works like UnionFind6,
+ * on plain int arrays, so no ints are boxed.
+ *
+ * @param <T> the generic type of the elements
+ */
+public class UnionFind<T>{
+    private static final double MAX_LOAD = 0.5;
+    private static final int initCapacity = 16;
+
+    // The index: slot i holds an element in keys[i] and its id in ids[i]. A null key marks an
+    // empty slot. The number of slots is a power of two.
+    private Object[] keys;
+    private int[] ids;
+    // elements[id] is the element with that id.
+    private Object[] elements;
+    private int[] parent;
+    // rank[i] is an upper bound of the height of the ith element.
+    private byte[] rank;
+    private int size;
+    private int count;
+
+    /**
+     * Constructor.
+     *
+     * @param expectedSize the expected number of elements
+     */
+    public UnionFind(int expectedSize){
+        int capacity = initCapacity;
+        while(capacity * MAX_LOAD < expectedSize){
+            capacity *= 2;
+        }
+        keys = new Object[capacity];
+        ids = new int[capacity];
+        int n = Math.max(initCapacity, expectedSize);
+        elements = new Object[n];
+        parent = new int[n];
+        rank = new byte[n];
+    }
+
+    /**
+     * No-argument constructor.
+     */
+    public UnionFind(){
+        this(0);
+    }
+
+    /**
+     * Gets the number of elements seen so far.
+     *
+     * @return the number of elements
+     */
+    public int getSize(){
+        return size;
+    }
+
+    /**
+     * Gets the number of disjoint sets.
+     *
+     * @return the number of sets
+     */
+    public int count(){
+        return count;
+    }
+
+    /**
+     * Gets the home slot of an element in the index.
+     *
+     * @param e the element
+     * @return the index of the slot
+     */
+    private int slot(Object e){
+        int h = e.hashCode() * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & (keys.length - 1);
+    }
+
+    /**
+     * Gets the id of an element.
+     *
+     * @param e the element
+     * @return the id of the element, or -1 if it has not been seen
+     */
+    private int idOf(T e){
+        if(e == null){
+            throw new IllegalArgumentException("Element cannot be null.");
+        }
+        int mask = keys.length - 1;
+        for(int i = slot(e); keys[i] != null; i = (i + 1) & mask){
+            if(keys[i].equals(e)){
+                return ids[i];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the id of an element, and assigns the next id to it if it has not been seen.
+     *
+     * @param e the element
+     * @return the id of the element
+     */
+    private int idOrAdd(T e){
+        if(e == null){
+            throw new IllegalArgumentException("Element cannot be null.");
+        }
+        int mask = keys.length - 1;
+        int i = slot(e);
+        for(; keys[i] != null; i = (i + 1) & mask){
+            if(keys[i].equals(e)){
+                return ids[i];
+            }
+        }
+
+        int id = size;
+        if(id == parent.length){
+            int n = parent.length * 2;
+            elements = Arrays.copyOf(elements, n);
+            parent = Arrays.copyOf(parent, n);
+            rank = Arrays.copyOf(rank, n);
+        }
+        elements[id] = e;
+        parent[id] = id;
+        size++;
+        count++;
+
+        keys[i] = e;
+        ids[i] = id;
+        if(size > MAX_LOAD * keys.length){
+            resizeIndex();
+        }
+        return id;
+    }
+
+    /**
+     * Doubles the number of slots of the index. The elements are inserted again from the
+     * elements array, so the old index is not needed.
+     */
+    private void resizeIndex(){
+        keys = new Object[keys.length * 2];
+        ids = new int[keys.length];
+        int mask = keys.length - 1;
+        for(int id = 0; id < size; id++){
+            int i = slot(elements[id]);
+            while(keys[i] != null){
+                i = (i + 1) & mask;
+            }
+            keys[i] = elements[id];
+            ids[i] = id;
+        }
+    }
+
+    /**
+     * Finds the root of the set of the element with id p, halving the path on the way.
+     * Time complexity = O(log*n) ≈ O(1)
+     *
+     * @param p the id of the element
+     * @return the id of the root
+     */
+    private int findRoot(int p){
+        while(parent[p] != p){
+            parent[p] = parent[parent[p]];
+            p = parent[p];
+        }
+        return p;
+    }
+
+    /**
+     * Gets the representative of the set that an element belongs to. Two elements are connected
+     * if and only if they have the same representative.
+     *
+     * @param e the element
+     * @return the representative, which is the element itself if it has not been seen
+     */
+    @SuppressWarnings("unchecked")
+    public T find(T e){
+        int id = idOf(e);
+        return id < 0 ? e : (T) elements[findRoot(id)];
+    }
+
+    /**
+     * Examines if two elements are connected. An element that has not been seen is only
+     * connected to itself, and it is not added.
+     *
+     * @param p the first element
+     * @param q the second element
+     * @return true if two elements are connected, false otherwise
+     */
+    public boolean isConnected(T p, T q){
+        int pId = idOf(p);
+        int qId = idOf(q);
+        if(pId < 0 || qId < 0){
+            return p.equals(q);
+        }
+        return findRoot(pId) == findRoot(qId);
+    }
+
+    /**
+     * Unions the sets that the two elements belong to. Elements that have not been seen are
+     * added first.
+     * Time complexity = O(log*n) ≈ O(1) amortized
+     *
+     * @param p the first element
+     * @param q the second element
+     */
+    public void union(T p, T q){
+        int pRoot = findRoot(idOrAdd(p));
+        int qRoot = findRoot(idOrAdd(q));
+
+        if(pRoot == qRoot){
+            return;
+        }
+        if(rank[pRoot] < rank[qRoot]){
+            parent[pRoot] = qRoot;
+        }else if(rank[pRoot] > rank[qRoot]){
+            parent[qRoot] = pRoot;
+        }else{
+            parent[qRoot] = pRoot;
+            rank[pRoot]++;
+        }
+        count--;
+    }
+
+    /**
+     * Unions the pairs (ps[i], qs[i]) for every i.
+     *
+     * @param ps the first elements of the pairs
+     * @param qs the second elements of the pairs
+     * @throws IllegalArgumentException if the arrays have different lengths
+     */
+    public void unionAll(T[] ps, T[] qs){
+        if(ps.length != qs.length){
+            throw new IllegalArgumentException("Both arrays must have the same length.");
+        }
+        for(int i = 0; i < ps.length; i++){
+            union(ps[i], qs[i]);
+        }
+    }
+}
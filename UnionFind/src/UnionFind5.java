@@ -6,6 +6,9 @@ public class UnionFind5 implements UF{
     private int[] parent;
     // rank[i] is the height of ith element.
     private int[] rank;
+    // sz[i] is the number of elements of the set whose root is i. It is only kept for roots.
+    private int[] sz;
+    private int count;
 
     /**
      * Constructor.
@@ -15,10 +18,13 @@ public class UnionFind5 implements UF{
     public UnionFind5(int size){
         parent = new int[size];
         rank = new int[size];
+        sz = new int[size];
+        count = size;
 
         for (int i = 0; i < size; i++) {
             parent[i] = i;
             rank[i] = 1;
+            sz[i] = 1;
         }
     }
 
@@ -39,7 +45,7 @@ public class UnionFind5 implements UF{
      * @param p the element
      * @return the id of the set that element p belongs to
      */
-    private int find(int p){
+    public int find(int p){
         if(p < 0 || p > parent.length - 1){
             throw new IllegalArgumentException("Find failed. Invalid p.");
         }
@@ -84,11 +90,62 @@ public class UnionFind5 implements UF{
         // other root.
         if(rank[pRoot] < rank[qRoot]){
             parent[pRoot] = qRoot;
+            merge(pRoot, qRoot);
         }else if(rank[pRoot] > rank[qRoot]){
             parent[qRoot] = pRoot;
+            merge(qRoot, pRoot);
         }else{
             parent[qRoot] = pRoot;
             rank[pRoot]++;
+            merge(qRoot, pRoot);
+        }
+    }
+
+    /**
+     * Updates the size and the number of sets after a root is placed under another root.
+     * Time complexity = O(1)
+     *
+     * @param child   the root that has been placed under the other one
+     * @param newRoot the root of the merged set
+     */
+    private void merge(int child, int newRoot){
+        sz[newRoot] += sz[child];
+        count--;
+    }
+
+    /**
+     * Gets the number of disjoint sets.
+     * Time complexity = O(1)
+     *
+     * @return the number of sets
+     */
+    public int count(){
+        return count;
+    }
+
+    /**
+     * Gets the number of elements of the set that element p belongs to.
+     * Time complexity = the time complexity of find
+     *
+     * @param p the element
+     * @return the number of elements of the set
+     */
+    public int componentSize(int p){
+        return sz[find(p)];
+    }
+
+    /**
+     * Visits every set with its root and its number of elements. The roots are found by
+     * scanning all the elements, so no list of roots has to be kept up to date by union.
+     * Time complexity = O(n)
+     *
+     * @param visitor the visitor
+     */
+    public void forEachComponent(ComponentVisitor visitor){
+        for(int i = 0; i < parent.length; i++){
+            if(parent[i] == i){
+                visitor.visit(i, sz[i]);
+            }
         }
     }
 }
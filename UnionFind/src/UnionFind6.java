@@ -0,0 +1,94 @@
+/**
+ * This class is an improvement of UnionFind5. The path is compressed by path halving in a loop
+ * instead of by recursion, so find never runs out of stack however tall a tree gets before it
+ * is compressed. The rank of an element is stored in a byte, since it never exceeds log2(n).
+ */
+public class UnionFind6 implements UF{
+    private int[] parent;
+    // rank[i] is an upper bound of the height of the ith element.
+    private byte[] rank;
+
+    /**
+     * Constructor.
+     *
+     * @param size the size of the disjoint sets.
+     */
+    public UnionFind6(int size){
+        parent = new int[size];
+        rank = new byte[size];
+
+        for (int i = 0; i < size; i++) {
+            parent[i] = i;
+        }
+    }
+
+    /**
+     * Gets the size of the disjoint sets.
+     *
+     * @return the size of the set
+     */
+    @Override
+    public int getSize(){
+        return parent.length;
+    }
+
+    /**
+     * Finds the parent of the set that element p belongs to.
+     * Time complexity = O(log*n) ≈ O(1)
+     *
+     * @param p the element
+     * @return the id of the set that element p belongs to
+     */
+    private int find(int p){
+        if(p < 0 || p > parent.length - 1){
+            throw new IllegalArgumentException("Find failed. Invalid p.");
+        }
+        // Path halving: every element on the path is linked to its grandparent, which halves
+        // the length of the path in one pass without recursion.
+        while(parent[p] != p){
+            parent[p] = parent[parent[p]];
+            p = parent[p];
+        }
+        return p;
+    }
+
+    /**
+     * Examines if two elements are connected.
+     * Time complexity = O(log*n) ≈ O(1)
+     *
+     * @param p the first element
+     * @param q the second element
+     * @return true if two elements are connected, false otherwise
+     */
+    @Override
+    public boolean isConnected(int p, int q) {
+        return find(p) == find(q);
+    }
+
+    /**
+     * Unions the sets that the two elements belong to.
+     * Time complexity = O(log*n) ≈ O(1)
+     *
+     * @param p the first element
+     * @param q the second element
+     */
+    @Override
+    public void union(int p, int q) {
+        int pRoot = find(p);
+        int qRoot = find(q);
+
+        if(pRoot == qRoot){
+            return;
+        }
+        // To reduce the height of the tree, make the root with a larger rank the parent of the
+        // other root.
+        if(rank[pRoot] < rank[qRoot]){
+            parent[pRoot] = qRoot;
+        }else if(rank[pRoot] > rank[qRoot]){
+            parent[qRoot] = pRoot;
+        }else{
+            parent[qRoot] = pRoot;
+            rank[pRoot]++;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+import java.util.Arrays;
+
+/**
+ * This class is a memory-compact version of UnionFind6 that keeps everything in one int array.
+ * For an element that is not a root, data[i] is its parent, which is never negative. For a root,
+ * data[i] is minus the number of elements of its set, so a separate rank array is not needed and
+ * the sets are united by size instead of by rank. This takes 4 bytes per element instead of 8,
+ * and the parent and the size of a root are read from the same cache line.
+ */
+public class UnionFind7 implements UF{
+    private int[] data;
+    private int count;
+
+    /**
+     * Constructor.
+     *
+     * @param size the size of the disjoint sets.
+     */
+    public UnionFind7(int size){
+        data = new int[size];
+        count = size;
+
+        // Every element is a root of a set with one element.
+        Arrays.fill(data, -1);
+    }
+
+    /**
+     * Gets the size of the disjoint sets.
+     *
+     * @return the size of the set
+     */
+    @Override
+    public int getSize(){
+        return data.length;
+    }
+
+    /**
+     * Gets the number of disjoint sets.
+     * Time complexity = O(1)
+     *
+     * @return the number of sets
+     */
+    public int count(){
+        return count;
+    }
+
+    /**
+     * Finds the parent of the set that element p belongs to.
+     * Time complexity = O(log*n) ≈ O(1)
+     *
+     * @param p the element
+     * @return the id of the set that element p belongs to
+     */
+    public int find(int p){
+        if(p < 0 || p > data.length - 1){
+            throw new IllegalArgumentException("Find failed. Invalid p.");
+        }
+        // Path halving, as in UnionFind6. The grandparent is only taken when the parent is not
+        // a root, since the entry of a root is its size.
+        while(data[p] >= 0){
+            int pParent = data[p];
+            if(data[pParent] >= 0){
+                data[p] = data[pParent];
+            }
+            p = data[p];
+        }
+        return p;
+    }
+
+    /**
+     * Examines if two elements are connected.
+     * Time complexity = O(log*n) ≈ O(1)
+     *
+     * @param p the first element
+     * @param q the second element
+     * @return true if two elements are connected, false otherwise
+     */
+    @Override
+    public boolean isConnected(int p, int q) {
+        return find(p) == find(q);
+    }
+
+    /**
+     * Unions the sets that the two elements belong to.
+     * Time complexity = O(log*n) ≈ O(1)
+     *
+     * @param p the first element
+     * @param q the second element
+     */
+    @Override
+    public void union(int p, int q) {
+        int pRoot = find(p);
+        int qRoot = find(q);
+
+        if(pRoot == qRoot){
+            return;
+        }
+        // To reduce the height of the tree, make the root of the larger set the parent of the
+        // other root. The sizes are negative, so the larger set has the smaller entry.
+        if(data[pRoot] > data[qRoot]){
+            int t = pRoot;
+            pRoot = qRoot;
+            qRoot = t;
+        }
+        data[pRoot] += data[qRoot];
+        data[qRoot] = pRoot;
+        count--;
+    }
+
+    /**
+     * Gets the number of elements of the set that element p belongs to.
+     * Time complexity = the time complexity of find
+     *
+     * @param p the element
+     * @return the number of elements of the set
+     */
+    public int componentSize(int p){
+        return -data[find(p)];
+    }
+}
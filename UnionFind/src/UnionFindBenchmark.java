@@ -0,0 +1,284 @@
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntFunction;
+
+/**
+ * This class measures the implementations of the UF interface on several workloads, so that
+ * the time complexities written in their comments can be checked:
+ * <ul>
+ *   <li>random: n unions of uniformly random pairs</li>
+ *   <li>chain: unions (i, i + 1) in order, which builds the tallest trees for the naive
+ *   versions</li>
+ *   <li>grid: unions of the neighbours in a square grid, row by row</li>
+ *   <li>mixed10 / mixed50: n random operations, of which 10% / 50% are unions and the rest
+ *   are isConnected</li>
+ * </ul>
+ * Every measurement is repeated after a warm-up run, and the median throughput is reported
+ * together with the bytes allocated per operation, including the arrays of the new instance.
+ * Hardware counters such as cache misses cannot be read from Java; run the benchmark under
+ * "perf stat -e cache-misses" to get them.
+ * <p>
+ * Usage: UnionFindBenchmark [maxN] [repetitions]. The sizes 10^3, 10^4, ... up to maxN are
+ * measured (10^6 by default). The quadratic versions are skipped for large sizes.
+ * <p>
+ * Usage: UnionFindBenchmark large [n]. Compares the footprint and the random-union throughput
+ * of UnionFind5, UnionFind6 and UnionFind7 on n elements (500 million by default). The pairs
+ * are generated on the fly instead of being stored, so only the union find itself takes
+ * memory; a heap of about 12 GB is needed for the default size ("java -Xmx12g").
+ */
+public class UnionFindBenchmark{
+    private static final String[] WORKLOADS = {"random", "chain", "grid", "mixed10", "mixed50"};
+
+    private UnionFindBenchmark(){}
+
+    /**
+     * An implementation under test.
+     */
+    private static class Candidate{
+        public final String name;
+        public final IntFunction<UF> factory;
+        // The largest size that the implementation is measured with.
+        public final long maxN;
+
+        /**
+         * Constructor.
+         *
+         * @param name    the name of the implementation
+         * @param factory creates an instance with the given size
+         * @param maxN    the largest size to measure
+         */
+        public Candidate(String name, IntFunction<UF> factory, long maxN){
+            this.name = name;
+            this.factory = factory;
+            this.maxN = maxN;
+        }
+    }
+
+    /**
+     * A generated workload: the operations are (ps[i], qs[i]), and unions[i] tells whether the
+     * ith operation is a union or an isConnected.
+     */
+    private static class Workload{
+        public final int size;
+        public final int[] ps;
+        public final int[] qs;
+        public final boolean[] unions;
+
+        /**
+         * Constructor.
+         *
+         * @param size   the number of elements
+         * @param ps     the first elements of the operations
+         * @param qs     the second elements of the operations
+         * @param unions whether every operation is a union
+         */
+        public Workload(int size, int[] ps, int[] qs, boolean[] unions){
+            this.size = size;
+            this.ps = ps;
+            this.qs = qs;
+            this.unions = unions;
+        }
+    }
+
+    /**
+     * Generates a workload.
+     *
+     * @param name the name of the workload
+     * @param n    the number of elements
+     * @return the workload
+     */
+    private static Workload generate(String name, int n){
+        Random random = new Random(n);
+        int ops = n;
+        int[] ps = new int[ops];
+        int[] qs = new int[ops];
+        boolean[] unions = new boolean[ops];
+        Arrays.fill(unions, true);
+
+        switch(name){
+            case "random":
+                for(int i = 0; i < ops; i++){
+                    ps[i] = random.nextInt(n);
+                    qs[i] = random.nextInt(n);
+                }
+                break;
+            case "chain":
+                for(int i = 0; i < ops; i++){
+                    ps[i] = i;
+                    qs[i] = Math.min(i + 1, n - 1);
+                }
+                break;
+            case "grid":
+                int side = Math.max(1, (int) Math.sqrt(n));
+                for(int i = 0; i < ops; i++){
+                    // Alternates between the right and the lower neighbour of cell i / 2.
+                    int cell = (i / 2) % (side * side);
+                    int row = cell / side;
+                    int col = cell % side;
+                    ps[i] = cell;
+                    if(i % 2 == 0){
+                        qs[i] = col + 1 < side ? cell + 1 : cell;
+                    }else{
+                        qs[i] = row + 1 < side ? cell + side : cell;
+                    }
+                }
+                break;
+            default:
+                int percent = Integer.parseInt(name.substring("mixed".length()));
+                for(int i = 0; i < ops; i++){
+                    ps[i] = random.nextInt(n);
+                    qs[i] = random.nextInt(n);
+                    unions[i] = random.nextInt(100) < percent;
+                }
+        }
+        return new Workload(n, ps, qs, unions);
+    }
+
+    /**
+     * Runs a workload once on a new instance.
+     *
+     * @param candidate the implementation
+     * @param workload  the workload
+     * @return a value that depends on the answers, so that the work cannot be optimized away
+     */
+    private static int run(Candidate candidate, Workload workload){
+        UF uf = candidate.factory.apply(workload.size);
+        int connected = 0;
+        for(int i = 0; i < workload.ps.length; i++){
+            if(workload.unions[i]){
+                uf.union(workload.ps[i], workload.qs[i]);
+            }else if(uf.isConnected(workload.ps[i], workload.qs[i])){
+                connected++;
+            }
+        }
+        return connected;
+    }
+
+    /**
+     * Gets the number of bytes allocated by the current thread so far, if the JVM reports it.
+     *
+     * @return the number of bytes, or -1 if it is not available
+     */
+    private static long allocatedBytes(){
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if(bean instanceof com.sun.management.ThreadMXBean){
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(
+                    Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args the largest size and the number of repetitions, or "large" and the size
+     */
+    public static void main(String[] args){
+        if(args.length > 0 && args[0].equals("large")){
+            int n = args.length > 1 ? Integer.parseInt(args[1]) : 500_000_000;
+            System.out.printf("%-20s %11s %14s %12s%n", "implementation", "n", "ops/s",
+                    "bytes/elem");
+            large("UnionFind5", UnionFind5::new, n);
+            large("UnionFind6", UnionFind6::new, n);
+            large("UnionFind7", UnionFind7::new, n);
+            return;
+        }
+
+        long maxN = args.length > 0 ? Long.parseLong(args[0]) : 1_000_000;
+        int repetitions = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+
+        List<Candidate> candidates = new ArrayList<>();
+        candidates.add(new Candidate("UnionFind1", UnionFind1::new, 100_000));
+        candidates.add(new Candidate("UnionFind2", UnionFind2::new, 100_000));
+        candidates.add(new Candidate("UnionFind3", UnionFind3::new, Long.MAX_VALUE));
+        candidates.add(new Candidate("UnionFind4", UnionFind4::new, Long.MAX_VALUE));
+        candidates.add(new Candidate("UnionFind5", UnionFind5::new, Long.MAX_VALUE));
+        candidates.add(new Candidate("UnionFind6", UnionFind6::new, Long.MAX_VALUE));
+        candidates.add(new Candidate("UnionFind7", UnionFind7::new, Long.MAX_VALUE));
+        candidates.add(new Candidate("ConcurrentUnionFind", ConcurrentUnionFind::new,
+                Long.MAX_VALUE));
+        candidates.add(new Candidate("RollbackUnionFind", RollbackUnionFind::new,
+                Long.MAX_VALUE));
+
+        System.out.printf("%-20s %-8s %11s %14s %12s%n", "implementation", "workload", "n",
+                "ops/s", "bytes/op");
+        for(long n = 1000; n <= maxN && n <= Integer.MAX_VALUE; n *= 10){
+            for(String name : WORKLOADS){
+                Workload workload = generate(name, (int) n);
+                for(Candidate candidate : candidates){
+                    if(n > candidate.maxN){
+                        continue;
+                    }
+                    measure(candidate, name, workload, repetitions);
+                }
+            }
+        }
+    }
+
+    /**
+     * Measures one implementation on one workload and prints the result.
+     *
+     * @param candidate   the implementation
+     * @param name        the name of the workload
+     * @param workload    the workload
+     * @param repetitions the number of measured runs
+     */
+    private static void measure(Candidate candidate, String name, Workload workload,
+                                int repetitions){
+        int sink = run(candidate, workload);
+        double[] throughput = new double[repetitions];
+        long bytes = 0;
+        for(int r = 0; r < repetitions; r++){
+            long allocated = allocatedBytes();
+            long start = System.nanoTime();
+            sink += run(candidate, workload);
+            long nanos = System.nanoTime() - start;
+            bytes += allocatedBytes() - allocated;
+            throughput[r] = workload.ps.length * 1e9 / Math.max(1, nanos);
+        }
+        Arrays.sort(throughput);
+        double bytesPerOp = (double) bytes / repetitions / workload.ps.length;
+        System.out.printf("%-20s %-8s %11d %14.0f %12.2f%s%n", candidate.name, name,
+                workload.size, throughput[repetitions / 2], bytesPerOp, sink < 0 ? "!" : "");
+    }
+
+    /**
+     * Measures the footprint of one implementation on n elements, and the throughput of n
+     * unions of random pairs, and prints the result.
+     *
+     * @param name    the name of the implementation
+     * @param factory creates an instance with the given size
+     * @param n       the number of elements
+     */
+    private static void large(String name, IntFunction<UF> factory, int n){
+        System.gc();
+        long allocated = allocatedBytes();
+        UF uf;
+        try{
+            uf = factory.apply(n);
+        }catch(OutOfMemoryError e){
+            System.out.printf("%-20s %11d %14s %12s%n", name, n, "-", "out of memory");
+            return;
+        }
+        double bytesPerElement = (double) (allocatedBytes() - allocated) / n;
+
+        // A xorshift generator, so that the pairs don't have to be stored.
+        long x = 0x9E3779B97F4A7C15L;
+        long start = System.nanoTime();
+        for(int i = 0; i < n; i++){
+            x ^= x << 13;
+            x ^= x >>> 7;
+            x ^= x << 17;
+            int p = (int) ((x >>> 32) % n);
+            int q = (int) ((x & 0xFFFFFFFFL) % n);
+            uf.union(p, q);
+        }
+        long nanos = System.nanoTime() - start;
+        System.out.printf("%-20s %11d %14.0f %12.2f%s%n", name, n, n * 1e9 / Math.max(1, nanos),
+                bytesPerElement, uf.isConnected(0, n - 1) ? "" : " ");
+    }
+}